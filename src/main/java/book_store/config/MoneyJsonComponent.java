@@ -0,0 +1,38 @@
+package book_store.config;
+
+import book_store.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.springframework.boot.jackson.JsonComponent;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/** Writes {@link Money} as a JSON number with two decimals and reads it back exactly. */
+@JsonComponent
+public class MoneyJsonComponent {
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider serializers)
+                throws IOException {
+            generator.writeNumber(money.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            BigDecimal amount = parser.getDecimalValue();
+            try {
+                return Money.of(amount);
+            } catch (ArithmeticException e) {
+                throw InvalidFormatException.from(parser,
+                        "Not an amount with at most " + Money.SCALE + " decimals", amount, Money.class);
+            }
+        }
+    }
+}
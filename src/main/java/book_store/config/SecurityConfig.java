@@ -1,10 +1,17 @@
 package book_store.config;
 
+import book_store.security.BasicAuthMode;
+import book_store.security.CachingAuthenticationProvider;
 import book_store.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -16,6 +23,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import java.time.Duration;
 
 @EnableMethodSecurity
 @RequiredArgsConstructor
@@ -23,29 +31,58 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Value("${security.basic-auth.mode:cached}")
+    private BasicAuthMode basicAuthMode;
+    @Value("${security.basic-auth.cache-ttl:30000}")
+    private long basicAuthCacheTtl;
+    @Value("${security.basic-auth.cache-max-size:10000}")
+    private long basicAuthCacheMaxSize;
+    private AuthenticationProvider basicAuthenticationProvider;
 
     @Bean
     public PasswordEncoder getPasswordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    @Bean
+    @Order(1)
+    public SecurityFilterChain basicTokenExchangeFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher("/auth/token")
+                .cors(AbstractHttpConfigurer::disable)
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authenticationProvider(basicAuthenticationProvider())
+                .build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        if (basicAuthMode == BasicAuthMode.EXCHANGE) {
+            http.httpBasic(AbstractHttpConfigurer::disable);
+        } else {
+            http.httpBasic(Customizer.withDefaults());
+        }
         return http
                 .cors(AbstractHttpConfigurer::disable)
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(
                         auth -> auth
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                                .permitAll()
                                 .requestMatchers("/auth/**", "/error", "/swagger-ui/**")
                                 .permitAll()
+                                .requestMatchers("/actuator/health/liveness", "/actuator/health/readiness")
+                                .permitAll()
                                 .anyRequest()
                                 .authenticated()
 
                 )
-                .httpBasic(Customizer.withDefaults())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
-                .userDetailsService(userDetailsService)
+                .authenticationProvider(basicAuthenticationProvider())
                 .build();
     }
 
@@ -55,4 +92,23 @@ public class SecurityConfig {
     ) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
     }
+
+    /**
+     * Built once for both Basic chains, so they share one credential cache. Not a bean:
+     * the global {@link AuthenticationManager} behind {@code /auth/login} keeps its
+     * plain {@link DaoAuthenticationProvider}.
+     */
+    private AuthenticationProvider basicAuthenticationProvider() {
+        if (basicAuthenticationProvider != null) {
+            return basicAuthenticationProvider;
+        }
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(getPasswordEncoder());
+        basicAuthenticationProvider = basicAuthMode != BasicAuthMode.CACHED
+                ? daoAuthenticationProvider
+                : new CachingAuthenticationProvider(daoAuthenticationProvider,
+                        Duration.ofMillis(basicAuthCacheTtl), basicAuthCacheMaxSize);
+        return basicAuthenticationProvider;
+    }
 }
@@ -1,15 +1,21 @@
 package book_store.controller;
 
+import book_store.dto.user.RefreshTokenRequestDto;
 import book_store.dto.user.UserLoginRequestDto;
 import book_store.dto.user.UserLoginResponseDto;
 import book_store.dto.user.UserRegistrationRequestDto;
 import book_store.dto.user.UserResponseDto;
 import book_store.exception.RegistrationException;
+import book_store.model.User;
 import book_store.security.AuthenticationService;
 import book_store.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 @RestController
@@ -19,8 +25,28 @@ public class AuthController {
     private final AuthenticationService authenticationService;
 
     @PostMapping("/login")
-    public UserLoginResponseDto login(@RequestBody UserLoginRequestDto requestDto) {
-    return authenticationService.authenticate(requestDto);
+    public CompletableFuture<UserLoginResponseDto> login(@RequestBody UserLoginRequestDto requestDto) {
+        return authenticationService.authenticate(requestDto);
+    }
+
+    @PostMapping("/token")
+    public UserLoginResponseDto exchangeBasicCredentials(Authentication authentication) {
+        return authenticationService.issueToken((User) authentication.getPrincipal());
+    }
+
+    @PostMapping("/refresh")
+    public UserLoginResponseDto refresh(@Valid @RequestBody RefreshTokenRequestDto requestDto) {
+        return authenticationService.refresh(requestDto.refreshToken());
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(
+            @Valid @RequestBody RefreshTokenRequestDto requestDto,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authenticationService.logout(requestDto.refreshToken(), accessToken);
     }
 
     @PostMapping("/registration")
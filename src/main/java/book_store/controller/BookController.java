@@ -1,25 +1,64 @@
 package book_store.controller;
 
 import book_store.dto.BookDto;
+import book_store.dto.CursorPage;
+import book_store.dto.book.BookBatchDto;
+import book_store.dto.book.BookChangeDto;
+import book_store.dto.book.BookFilterParameters;
+import book_store.dto.book.BookIdsRequestDto;
 import book_store.dto.book.BookSearchParameters;
+import book_store.dto.category.CategoryFacetDto;
 import book_store.dto.CreateBookRequestDto;
+import book_store.exception.InvalidCursorException;
+import book_store.search.CatalogVersions;
+import book_store.service.BookExportService;
+import book_store.service.BookImportService;
+import book_store.service.BookResponseCache;
 import book_store.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Pageable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(name = "Book management", description = "Endpoint to managing books")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/books")
 public class BookController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String GZIP = "gzip";
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final CatalogVersions catalogVersions;
+    private final BookResponseCache bookResponseCache;
+    private final ObjectMapper objectMapper;
 
     @PreAuthorize("hasRole('ROLE_USER')")
     @Operation(summary = "Get all books", description = "Get a list of all available books")
@@ -29,10 +68,76 @@ public class BookController {
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
-    @Operation(summary = "Get book by ID", description = "get book by ID")
+    @Operation(summary = "Get books by IDs",
+            description = "Get the books with the given IDs in the requested order, and the IDs no book has")
+    @GetMapping(params = "ids")
+    public BookBatchDto getByIds(@RequestParam List<Long> ids) {
+        return bookService.findAllByIds(ids);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get books by IDs",
+            description = "Same as GET /books?ids=, for ID lists too long for a URL")
+    @PostMapping("/lookup")
+    public BookBatchDto lookup(@RequestBody @Valid BookIdsRequestDto requestDto) {
+        return bookService.findAllByIds(requestDto.ids());
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get all books by cursor",
+            description = "Get the books after the given cursor; an empty cursor starts from the beginning")
+    @GetMapping(params = "after")
+    public CursorPage<BookDto> getAllAfter(@RequestParam String after,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return bookService.findAllAfter(after, Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE));
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get books by IDs and cursor",
+            description = "Rejected: a cursor pages through all books, it cannot be combined with ids")
+    @GetMapping(params = {"after", "ids"})
+    public CursorPage<BookDto> getByIdsAfter() {
+        throw new InvalidCursorException("A cursor cannot be combined with ids");
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get book changes",
+            description = "Books created, updated or deleted after the cursor, oldest first; "
+                    + "pass the returned cursor to the next call, an empty cursor starts from the beginning")
+    @GetMapping("/changes")
+    public CursorPage<BookChangeDto> getChanges(@RequestParam(defaultValue = "") String since,
+                                                @RequestParam(defaultValue = "100") int size) {
+        return bookService.findChangesAfter(since, Math.min(Math.max(size, 1), MAX_CHANGES_PAGE_SIZE));
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get book by ID", description = "get book by ID",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BookDto.class))))
     @GetMapping("/{id}")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.findById(id);
+    public ResponseEntity<byte[]> getBookById(@PathVariable Long id, ServletWebRequest request) {
+        Long version = catalogVersions.bookVersion(id);
+        Long categoriesVersion = catalogVersions.categoriesVersion();
+        String etag = version != null && categoriesVersion != null
+                ? ConditionalRequests.etag(version, categoriesVersion)
+                : null;
+        if (ConditionalRequests.notModified(request, etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookResponseCache.get(id, etag, () -> bookService.findById(id)));
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get book by ISBN", description = "Get the book with the given ISBN-13",
+            responses = @ApiResponse(responseCode = "200",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BookDto.class))))
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<byte[]> getBookByIsbn(@PathVariable String isbn, ServletWebRequest request) {
+        return getBookById(bookService.findIdByIsbn(isbn), request);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -42,6 +147,53 @@ public class BookController {
         return bookService.save(requestDto);
     }
 
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Bulk import books",
+            description = "Import books from an NDJSON or CSV stream; progress and rejected rows are streamed back as NDJSON")
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public void importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BookImportService.Format format = MediaType.valueOf(CSV).includes(contentType)
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = response.getWriter();
+        InputStreamReader input = new InputStreamReader(request.getInputStream(),
+                contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset());
+        bookImportService.importBooks(input, format, event -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.write('\n');
+                if (!"error".equals(event.type())) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Export all books",
+            description = "Stream the whole catalog as NDJSON, gzip-compressed when the client accepts it")
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.valueOf(NDJSON))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(bookExportService::exportBooks);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(output -> {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(output, 1 << 16)) {
+                bookExportService.exportBooks(compressed);
+            }
+        });
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Delete book", description = "Delete book")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -53,8 +205,9 @@ public class BookController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Update book", description = "Update book")
     @PutMapping("/{id}")
-    public BookDto updateBook(@PathVariable Long id, @RequestBody @Valid CreateBookRequestDto requestDto) {
-        return bookService.updateById(requestDto, id);
+    public BookDto updateBook(@PathVariable Long id, @RequestBody @Valid CreateBookRequestDto requestDto,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookService.updateById(requestDto, id, ConditionalRequests.expectedVersion(ifMatch));
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -63,4 +216,36 @@ public class BookController {
     public List<BookDto> search(BookSearchParameters searchParameters) {
         return bookService.search(searchParameters);
     }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Full-text search",
+            description = "Search title, author and description, ranked by relevance; use OR between alternatives")
+    @GetMapping(value = "/search", params = "q")
+    public List<BookDto> searchFullText(@RequestParam String q, Pageable pageable) {
+        return bookService.searchFullText(q, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Filter books by categories",
+            description = "Books in all given categories, or in any of them with match=any, optionally matching q")
+    @GetMapping("/filter")
+    public List<BookDto> filter(BookFilterParameters filterParameters, Pageable pageable) {
+        return bookService.filter(filterParameters, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Count books per category",
+            description = "Number of books in each category among the books matching the same filter")
+    @GetMapping("/facets")
+    public List<CategoryFacetDto> facets(BookFilterParameters filterParameters) {
+        return bookService.facets(filterParameters);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Suggest titles and authors",
+            description = "Complete a typed prefix with the most popular titles and authors")
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+    }
 }
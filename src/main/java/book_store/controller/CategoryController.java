@@ -1,7 +1,10 @@
 package book_store.controller;
 
+import book_store.dto.CursorPage;
 import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.dto.category.CategoryChangeDto;
 import book_store.dto.category.CategoryDto;
+import book_store.search.CatalogVersions;
 import book_store.service.BookService;
 import book_store.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,9 +12,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import java.util.List;
 
 @Tag(name = "Category management", description = "Endpoint to managing categories")
@@ -19,8 +24,10 @@ import java.util.List;
 @RestController
 @RequestMapping("/categories")
 public class CategoryController {
+    private static final int MAX_CHANGES_PAGE_SIZE = 1000;
     private final CategoryService categoryService;
     private final BookService bookService;
+    private final CatalogVersions catalogVersions;
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Create a new category", description = "Creat a new category")
@@ -32,22 +39,41 @@ public class CategoryController {
     @PreAuthorize("hasRole('ROLE_USER')")
     @Operation(summary = "Get all categories", description = "Get a list of all available categories")
     @GetMapping
-    public List<CategoryDto> getAll(Pageable pageable) {
+    public List<CategoryDto> getAll(Pageable pageable, ServletWebRequest request) {
+        Long version = catalogVersions.categoriesVersion();
+        if (version != null && ConditionalRequests.notModified(request, ConditionalRequests.etag(version))) {
+            return null;
+        }
         return categoryService.findAll(pageable);
     }
 
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get category changes",
+            description = "Categories created, updated or deleted after the cursor, oldest first; "
+                    + "pass the returned cursor to the next call, an empty cursor starts from the beginning")
+    @GetMapping("/changes")
+    public CursorPage<CategoryChangeDto> getChanges(@RequestParam(defaultValue = "") String since,
+                                                    @RequestParam(defaultValue = "100") int size) {
+        return categoryService.findChangesAfter(since, Math.min(Math.max(size, 1), MAX_CHANGES_PAGE_SIZE));
+    }
+
     @PreAuthorize("hasRole('ROLE_USER')")
     @Operation(summary = "Get category by ID", description = "get category by ID")
     @GetMapping("/{id}")
-    public CategoryDto getCategoryById(@PathVariable Long id) {
+    public CategoryDto getCategoryById(@PathVariable Long id, ServletWebRequest request) {
+        Long version = catalogVersions.categoryVersion(id);
+        if (version != null && ConditionalRequests.notModified(request, ConditionalRequests.etag(version))) {
+            return null;
+        }
         return categoryService.getById(id);
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Update book", description = "Update book")
     @PutMapping("/{id}")
-    public CategoryDto updateCategory(@PathVariable Long id, @RequestBody @Valid CategoryDto categoryDto) {
-        return categoryService.update(id, categoryDto);
+    public CategoryDto updateCategory(@PathVariable Long id, @RequestBody @Valid CategoryDto categoryDto,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return categoryService.update(id, categoryDto, ConditionalRequests.expectedVersion(ifMatch));
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -59,9 +85,17 @@ public class CategoryController {
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
-    @Operation(summary = "Get category by ID", description = "get category by ID")
+    @Operation(summary = "Get books by category ID",
+            description = "Books of the category ordered by id, one page at a time: "
+                    + "page and size select the page, 20 books by default")
     @GetMapping("/{categoryId}/books")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable("categoryId") Long categoryId) {
-        return bookService.getBooksByCategoryId(categoryId);
+    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable("categoryId") Long categoryId,
+                                                                Pageable pageable,
+                                                                ServletWebRequest request) {
+        Long version = catalogVersions.catalogVersion();
+        if (version != null && ConditionalRequests.notModified(request, ConditionalRequests.etag(version))) {
+            return null;
+        }
+        return bookService.getBooksByCategoryId(categoryId, pageable);
     }
 }
@@ -0,0 +1,58 @@
+package book_store.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Strong ETags built from change_seq versions. The first part of every tag is the
+ * resource's own version, which is what {@code If-Match} is checked against.
+ */
+final class ConditionalRequests {
+    private static final String ANY = "*";
+    private static final String SEPARATOR = "-";
+    private static final long NO_MATCH = -1;
+
+    private ConditionalRequests() {
+    }
+
+    static String etag(long... versions) {
+        return Arrays.stream(versions)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(SEPARATOR, "\"", "\""));
+    }
+
+    /**
+     * Sets the ETag and answers 304 when {@code If-None-Match} already names it. A
+     * {@code null} tag means the version is not known and the request is served normally.
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return request.checkNotModified(etag);
+    }
+
+    /**
+     * The version an {@code If-Match} header asks for, {@code null} when the update is
+     * unconditional and a version no row has when the header cannot match (weak or foreign tags).
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return NO_MATCH;
+        }
+        String version = tag.substring(1, tag.length() - 1).split(SEPARATOR, -1)[0];
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package book_store.controller;
 
+import book_store.dto.CursorPage;
 import book_store.dto.order.OrderDto;
 import book_store.dto.order.OrderRequest;
 import book_store.dto.order.UpdateOrderStatusRequest;
@@ -23,6 +24,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
     private final OrderService orderService;
 
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -41,6 +43,17 @@ public class OrderController {
         return orderService.findAll(user, pageable);
     }
 
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Get orders by cursor",
+            description = "Endpoint for retrieving user's order history, newest first, after the given cursor")
+    @GetMapping(params = "after")
+    public CursorPage<OrderDto> getOrderHistoryAfter(@RequestParam String after,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return orderService.findAllAfter(user, after, Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE));
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Update order status", description = "Endpoint for updating the status of an order")
     @PatchMapping("/{id}")
@@ -1,6 +1,7 @@
 package book_store.controller;
 
 import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationsRequest;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.dto.cartItemDto.UpdateCartItemRequest;
 import book_store.model.User;
@@ -9,7 +10,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -25,9 +25,9 @@ public class ShoppingCartController {
     @PreAuthorize("hasRole('ROLE_USER')")
     @Operation(summary = "Get shoppingCart", description = "Get shoppingCart")
     @GetMapping()
-    public ShoppingCartDto getShoppingCart(Authentication authentication, Pageable pageable) {
+    public ShoppingCartDto getShoppingCart(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        return shoppingCartService.findUserShoppingCart(user, pageable);
+        return shoppingCartService.findUserShoppingCart(user);
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -38,6 +38,16 @@ public class ShoppingCartController {
         return shoppingCartService.addBookToCart(request, user);
     }
 
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Operation(summary = "Update cart", description = "Apply a list of add, set-quantity and remove operations "
+            + "to the shopping cart in one transaction")
+    @PatchMapping
+    public ShoppingCartDto applyOperations(@RequestBody @Valid CartOperationsRequest request,
+                                           Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return shoppingCartService.applyOperations(request.operations(), user);
+    }
+
     @PreAuthorize("hasRole('ROLE_USER')")
     @Operation(summary = "Update quantity", description = "Update quantity of a book in the shopping cart")
     @PutMapping("cart-items/{cartItemId}")
@@ -0,0 +1,6 @@
+package book_store.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> items, String next) {
+}
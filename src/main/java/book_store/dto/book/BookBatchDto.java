@@ -0,0 +1,8 @@
+package book_store.dto.book;
+
+import book_store.dto.BookDto;
+import java.util.List;
+
+/** Books in the order their ids were requested, and the requested ids no book has. */
+public record BookBatchDto(List<BookDto> books, List<Long> missingIds) {
+}
@@ -0,0 +1,10 @@
+package book_store.dto.book;
+
+import book_store.dto.BookDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+
+/** One changed book; {@code book} is absent when the change was a delete. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookChangeDto(Long id, long changeSeq, LocalDateTime updatedAt, boolean deleted, BookDto book) {
+}
@@ -0,0 +1,4 @@
+package book_store.dto.book;
+
+public record BookFilterParameters(Long[] categoryIds, String match, String q) {
+}
@@ -0,0 +1,13 @@
+package book_store.dto.book;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BookIdsRequestDto(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@NotNull Long> ids
+) {
+}
@@ -0,0 +1,18 @@
+package book_store.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookImportEvent(String type, Long line, String message, Long processed, Long imported, Long failed) {
+    public static BookImportEvent error(long line, String message) {
+        return new BookImportEvent("error", line, message, null, null, null);
+    }
+
+    public static BookImportEvent progress(long processed, long imported, long failed) {
+        return new BookImportEvent("progress", null, null, processed, imported, failed);
+    }
+
+    public static BookImportEvent done(long processed, long imported, long failed) {
+        return new BookImportEvent("done", null, null, processed, imported, failed);
+    }
+}
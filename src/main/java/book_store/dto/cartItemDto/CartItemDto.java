@@ -1,5 +1,7 @@
 package book_store.dto.cartItemDto;
 
+import book_store.model.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
@@ -7,5 +9,11 @@ public class CartItemDto {
     private Long id;
     private Long bookId;
     private String bookTitle;
+    private Money price;
     private int quantity;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getLineTotal() {
+        return price == null ? null : price.times(quantity);
+    }
 }
@@ -0,0 +1,10 @@
+package book_store.dto.category;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+
+/** One changed category; {@code category} is absent when the change was a delete. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CategoryChangeDto(Long id, long changeSeq, LocalDateTime updatedAt, boolean deleted,
+                                CategoryDto category) {
+}
@@ -0,0 +1,4 @@
+package book_store.dto.category;
+
+public record CategoryFacetDto(Long categoryId, int count) {
+}
@@ -1,8 +1,8 @@
 package book_store.dto.order;
 
 import book_store.dto.orderItem.OrderItemDto;
+import book_store.model.Money;
 import lombok.Data;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -12,6 +12,6 @@ public class OrderDto {
     private Long userId;
     private List<OrderItemDto> orderItems;
     private LocalDateTime orderDate;
-    private BigDecimal total;
+    private Money total;
     private String status;
 }
@@ -0,0 +1,27 @@
+package book_store.dto.shoppingCart;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartOperationRequest {
+    @NotNull
+    private Type type;
+
+    @NotNull
+    private Long bookId;
+
+    private Integer quantity;
+
+    @AssertTrue(message = "must be positive for ADD and SET_QUANTITY")
+    public boolean isQuantityValid() {
+        return type == Type.REMOVE || quantity != null && quantity > 0;
+    }
+
+    public enum Type {
+        ADD,
+        SET_QUANTITY,
+        REMOVE
+    }
+}
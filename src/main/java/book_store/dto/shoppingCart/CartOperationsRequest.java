@@ -0,0 +1,14 @@
+package book_store.dto.shoppingCart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record CartOperationsRequest(
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotNull @Valid CartOperationRequest> operations
+) {
+}
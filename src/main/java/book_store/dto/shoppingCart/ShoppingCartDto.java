@@ -1,7 +1,10 @@
 package book_store.dto.shoppingCart;
 
 import book_store.dto.cartItemDto.CartItemDto;
+import book_store.model.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import java.util.Objects;
 import java.util.Set;
 
 @Data
@@ -9,4 +12,15 @@ public class ShoppingCartDto {
     private  Long id;
     private  Long userId;
     private Set<CartItemDto> cartItems;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getTotal() {
+        if (cartItems == null) {
+            return Money.ZERO;
+        }
+        return cartItems.stream()
+                .map(CartItemDto::getLineTotal)
+                .filter(Objects::nonNull)
+                .reduce(Money.ZERO, Money::plus);
+    }
 }
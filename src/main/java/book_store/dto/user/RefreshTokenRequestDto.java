@@ -0,0 +1,9 @@
+package book_store.dto.user;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public record RefreshTokenRequestDto(
+        @NotEmpty
+        String refreshToken
+) {
+}
@@ -0,0 +1,7 @@
+package book_store.exception;
+
+public class AmountOutOfRangeException extends RuntimeException {
+    public AmountOutOfRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package book_store.exception;
+
+public class LoginLaneSaturatedException extends RuntimeException{
+    public LoginLaneSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -14,6 +14,8 @@ public interface BookMapper {
     BookDto toDto(Book book);
 
     @Mapping(target = "categories", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
     Book toModel(CreateBookRequestDto requestDto);
 
     BookDtoWithoutCategoryIds toDtoWithoutCategories(Book book);
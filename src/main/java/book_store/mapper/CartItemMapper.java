@@ -3,15 +3,22 @@ package book_store.mapper;
 import book_store.config.MapperConfig;
 import book_store.dto.cartItemDto.CartItemDto;
 import book_store.model.CartItem;
+import book_store.model.Money;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import java.math.BigDecimal;
 
 @Mapper(config = MapperConfig.class)
 public interface CartItemMapper {
     @Mapping(source = "book.id", target = "bookId")
     @Mapping(source = "book.title", target = "bookTitle")
+    @Mapping(source = "book.price", target = "price")
     CartItemDto toDto(CartItem cartItem);
 
     @Mapping(source = "bookId", target = "book.id")
     CartItem toEntity(CartItemDto cartItemDTO);
+
+    default Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
 }
@@ -4,10 +4,13 @@ import book_store.config.MapperConfig;
 import book_store.dto.category.CategoryDto;
 import book_store.model.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(config = MapperConfig.class)
 public interface CategoryMapper {
     CategoryDto toDto(Category category);
 
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
     Category toEntity(CategoryDto categoryDTO);
 }
@@ -4,6 +4,7 @@ import book_store.config.MapperConfig;
 import book_store.dto.cartItemDto.CartItemDto;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.model.CartItem;
+import book_store.model.Money;
 import book_store.model.ShoppingCart;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -27,6 +28,7 @@ public interface ShoppingCartMapper {
                     cartItemDto.setId(cartItem.getId());
                     cartItemDto.setBookId(cartItem.getBook().getId());
                     cartItemDto.setBookTitle(cartItem.getBook().getTitle());
+                    cartItemDto.setPrice(Money.of(cartItem.getBook().getPrice()));
                     cartItemDto.setQuantity(cartItem.getQuantity());
                     return cartItemDto;
                 })
@@ -3,9 +3,13 @@ package book_store.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -15,9 +19,13 @@ import java.util.Set;
 @SQLDelete(sql = "Update books SET is_deleted = TRUE WHERE id = ?")
 @SQLRestriction(value = "is_deleted = FALSE")
 @Table(name = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_ids")
+    @TableGenerator(name = "book_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "books", allocationSize = 100)
     private  Long id;
     @Column(nullable = false)
     private String title;
@@ -36,7 +44,13 @@ public class Book {
             joinColumns = { @JoinColumn(name = "book_id") },
             inverseJoinColumns = { @JoinColumn(name = "category_id") }
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-categories")
     private Set<Category> categories = new HashSet<>();
     @Column(name = "is_deleted",nullable = false)
     private boolean isDeleted = false;
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
 }
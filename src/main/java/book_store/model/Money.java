@@ -0,0 +1,49 @@
+package book_store.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+
+/**
+ * An amount of money in cents, matching the {@code decimal(8,2)} price and total
+ * columns. Conversions from {@link BigDecimal} are exact and arithmetic throws
+ * {@link ArithmeticException} instead of overflowing, so results always equal the
+ * {@code BigDecimal} ones. Intermediate amounts such as a cart total may exceed
+ * the columns; {@link MoneyConverter} refuses to store them.
+ */
+@Schema(type = "number", example = "12.50")
+public record Money(long cents) implements Comparable<Money> {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+    /** The largest amount a {@code decimal(8,2)} column holds, 999 999.99. */
+    public static final Money COLUMN_MAX = new Money(99_999_999);
+
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean fitsColumn() {
+        return cents >= -COLUMN_MAX.cents && cents <= COLUMN_MAX.cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
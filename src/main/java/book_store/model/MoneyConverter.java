@@ -0,0 +1,26 @@
+package book_store.model;
+
+import book_store.exception.AmountOutOfRangeException;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!money.fitsColumn()) {
+            throw new AmountOutOfRangeException("Amount " + money + " exceeds the largest storable amount "
+                    + Money.COLUMN_MAX);
+        }
+        return money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
@@ -5,7 +5,6 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -27,7 +26,7 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private Status status;
     @Column(nullable = false)
-    private BigDecimal total;
+    private Money total;
     @Column(name = "order_date", nullable = false)
     private LocalDateTime orderDate;
     @Column(name = "shipping_address", nullable = false)
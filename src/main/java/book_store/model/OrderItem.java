@@ -6,7 +6,6 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
-import java.math.BigDecimal;
 
 @Entity
 @Setter
@@ -27,7 +26,7 @@ public class OrderItem {
     @Column(nullable = false)
     private int quantity;
     @Column(nullable = false)
-    private BigDecimal price;
+    private Money price;
     @Column(name = "is_deleted",nullable = false)
     private boolean isDeleted = false;
 }
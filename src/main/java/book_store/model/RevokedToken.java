@@ -0,0 +1,17 @@
+package book_store.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String jti;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,13 @@
+package book_store.repository;
+
+import java.time.LocalDateTime;
+
+public interface EntityChange {
+    Long getId();
+
+    Long getChangeSeq();
+
+    LocalDateTime getUpdatedAt();
+
+    Boolean getDeleted();
+}
@@ -0,0 +1,37 @@
+package book_store.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The database behind a connection, for the few native statements whose syntax
+ * differs: MySQL upserts with {@code INSERT ... ON DUPLICATE KEY UPDATE}, H2 with
+ * {@code MERGE INTO ... USING}.
+ */
+public enum SqlDialect {
+    MYSQL,
+    H2;
+
+    private static final String DUPLICATE_KEY_STATE = "23505";
+
+    public static SqlDialect of(Connection connection) throws SQLException {
+        return "H2".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()) ? H2 : MYSQL;
+    }
+
+    /**
+     * Runs an upsert. H2 runs the match and the insert of a {@code MERGE} separately,
+     * so two concurrent merges of a new key can both insert; the loser sees a
+     * duplicate key and merges again, now matching the winner's row.
+     */
+    public int executeUpsert(PreparedStatement statement) throws SQLException {
+        try {
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            if (this != H2 || !DUPLICATE_KEY_STATE.equals(e.getSQLState())) {
+                throw e;
+            }
+            return statement.executeUpdate();
+        }
+    }
+}
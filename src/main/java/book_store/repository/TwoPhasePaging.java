@@ -0,0 +1,61 @@
+package book_store.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Pages entities whose collections are fetched with an entity graph. Applying the
+ * page limit to a collection fetch makes Hibernate load every matching row and
+ * paginate in memory (HHH90003004), so the page is first selected as a list of
+ * ids, by offset or by keyset, and the entities and their collections are then
+ * loaded for those ids only.
+ */
+public final class TwoPhasePaging {
+    private static final String ID_PROPERTY = "id";
+
+    private TwoPhasePaging() {
+    }
+
+    public static <T, ID> Page<T> fetch(
+            Pageable pageable,
+            Function<Pageable, Page<ID>> idQuery,
+            Function<Collection<ID>, List<T>> entityQuery,
+            Function<T, ID> idOf) {
+        Page<ID> ids = idQuery.apply(withIdTiebreaker(pageable));
+        return new PageImpl<>(fetch(ids.getContent(), entityQuery, idOf), pageable, ids.getTotalElements());
+    }
+
+    public static <T, ID> List<T> fetch(
+            List<ID> ids,
+            Function<Collection<ID>, List<T>> entityQuery,
+            Function<T, ID> idOf) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<ID, T> entitiesById = new HashMap<>();
+        for (T entity : entityQuery.apply(ids)) {
+            entitiesById.put(idOf.apply(entity), entity);
+        }
+        return ids.stream()
+                .map(entitiesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Pageable withIdTiebreaker(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().getOrderFor(ID_PROPERTY) != null) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().and(Sort.by(ID_PROPERTY)));
+    }
+}
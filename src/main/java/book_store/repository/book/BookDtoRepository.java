@@ -0,0 +1,21 @@
+package book_store.repository.book;
+
+import book_store.dto.BookDto;
+import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.model.Book;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only book queries that select columns straight into DTOs. Nothing is put in
+ * the persistence context, so list endpoints skip entity hydration and the
+ * dirty-checking snapshots that come with it. Results are ordered by id.
+ */
+public interface BookDtoRepository {
+    List<BookDto> findDtosByIdIn(Collection<Long> ids);
+
+    List<BookDto> findDtos(Specification<Book> spec);
+
+    List<BookDtoWithoutCategoryIds> findDtosWithoutCategoriesByIdIn(Collection<Long> ids);
+}
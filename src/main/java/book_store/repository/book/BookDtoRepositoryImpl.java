@@ -0,0 +1,94 @@
+package book_store.repository.book;
+
+import book_store.dto.BookDto;
+import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.model.Book;
+import book_store.model.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookDtoRepositoryImpl implements BookDtoRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookDto> findDtosByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findDtos((root, query, criteriaBuilder) -> root.get("id").in(ids));
+    }
+
+    @Override
+    public List<BookDto> findDtos(Specification<Book> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookRow> query = criteriaBuilder.createQuery(BookRow.class);
+        Root<Book> root = query.from(Book.class);
+        Join<Book, Category> category = root.join("categories", JoinType.LEFT);
+        query.select(criteriaBuilder.construct(BookRow.class,
+                root.get("id"), root.get("title"), root.get("author"), root.get("isbn"),
+                root.get("price"), root.get("description"), root.get("coverImage"), category.get("id")));
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+        return toDtos(entityManager.createQuery(query).getResultList());
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> findDtosWithoutCategoriesByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookDtoWithoutCategoryIds> query = criteriaBuilder.createQuery(BookDtoWithoutCategoryIds.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(criteriaBuilder.construct(BookDtoWithoutCategoryIds.class,
+                root.get("id"), root.get("title"), root.get("author"), root.get("isbn"),
+                root.get("price"), root.get("description"), root.get("coverImage")));
+        query.where(root.get("id").in(ids));
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /** Rows come one per book and category, ordered by book id. */
+    private static List<BookDto> toDtos(List<BookRow> rows) {
+        List<BookDto> books = new ArrayList<>();
+        BookDto current = null;
+        for (BookRow row : rows) {
+            if (current == null || !current.getId().equals(row.id())) {
+                current = new BookDto()
+                        .setId(row.id())
+                        .setTitle(row.title())
+                        .setAuthor(row.author())
+                        .setIsbn(row.isbn())
+                        .setPrice(row.price())
+                        .setDescription(row.description())
+                        .setCoverImage(row.coverImage())
+                        .setCategoryIds(new HashSet<>());
+                books.add(current);
+            }
+            if (row.categoryId() != null) {
+                current.getCategoryIds().add(row.categoryId());
+            }
+        }
+        return books;
+    }
+
+    private record BookRow(Long id, String title, String author, String isbn, BigDecimal price,
+                           String description, String coverImage, Long categoryId) {
+    }
+}
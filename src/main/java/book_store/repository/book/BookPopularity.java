@@ -0,0 +1,7 @@
+package book_store.repository.book;
+
+public interface BookPopularity {
+    Long getBookId();
+
+    Long getCopies();
+}
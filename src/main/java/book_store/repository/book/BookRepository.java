@@ -1,21 +1,66 @@
 package book_store.repository.book;
 
+import book_store.dto.BookDto;
 import book_store.model.Book;
-import book_store.model.Category;
+import book_store.repository.EntityChange;
+import book_store.repository.TwoPhasePaging;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
-    List<Book> findAllByCategoriesContaining(Category category);
-
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookDtoRepository {
     @EntityGraph(attributePaths = "categories")
     List<Book> findAll(Specification<Book> spec);
 
+    @Override
+    default Page<Book> findAll(Pageable pageable) {
+        return TwoPhasePaging.fetch(pageable, this::findIds, this::findAllByIdIn, Book::getId);
+    }
+
+    default Page<BookDto> findAllDtos(Pageable pageable) {
+        return TwoPhasePaging.fetch(pageable, this::findIds, this::findDtosByIdIn, BookDto::getId);
+    }
+
+    @Query("select b.id from Book b")
+    Page<Long> findIds(Pageable pageable);
+
+    // locks the row, so a conditional update checks and writes without the change counter held
+    @Query(value = "select change_seq from books where id = :id and is_deleted = false for update",
+            nativeQuery = true)
+    Optional<Long> findChangeSeqByIdForUpdate(Long id);
+
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // in the order of the category bitmaps, for use until they are loaded
+    @Query("select b.id from Book b join b.categories c where c.id = :categoryId order by b.id")
+    List<Long> findIdsByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query("select b.id from Book b where b.id > :afterId order by b.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query("select i.book.id as bookId, sum(i.quantity) as copies from OrderItem i group by i.book.id")
+    List<BookPopularity> findPopularity();
+
+    // native, so soft-deleted books, which keep their unique isbn, are found too
+    @Query(value = "select isbn from books where isbn in (:isbns)", nativeQuery = true)
+    List<String> findExistingIsbns(Collection<String> isbns);
+
+    // native, so soft deletes show up in the feed; served from idx_books_change_seq_id
+    @Query(value = "select id, change_seq as changeSeq, updated_at as updatedAt, is_deleted as deleted"
+            + " from books where change_seq > :changeSeq or (change_seq = :changeSeq and id > :id)"
+            + " order by change_seq, id limit :limit", nativeQuery = true)
+    List<EntityChange> findChangesAfter(long changeSeq, long id, int limit);
+
     @EntityGraph(attributePaths = "categories")
-    Page<Book> findAll(Pageable pageable);
+    List<Book> findAllByIdIn(Collection<Long> ids);
 }
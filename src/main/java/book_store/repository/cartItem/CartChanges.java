@@ -0,0 +1,11 @@
+package book_store.repository.cartItem;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Net effect of a list of cart operations, at most one change per book: copies to
+ * add, quantities to set and books to remove.
+ */
+public record CartChanges(Map<Long, Integer> added, Map<Long, Integer> quantities, Set<Long> removed) {
+}
@@ -0,0 +1,19 @@
+package book_store.repository.cartItem;
+
+import java.util.Map;
+
+public interface CartItemBatchRepository {
+    /**
+     * Adds {@code quantity} copies of the book to the user's cart in one statement:
+     * inserts the line, adds to it, or revives it if it was removed. Relies on the
+     * unique (shopping_cart_id, book_id) key; 0 rows when the user has no cart or the
+     * book does not exist.
+     */
+    int addToUserCart(Long userId, Long bookId, int quantity);
+
+    /** Applies the changes to the cart as one JDBC batch per kind of change. */
+    void applyChanges(Long shoppingCartId, CartChanges changes);
+
+    /** Applies the changes of several carts, keyed by cart id, in the same batches. */
+    void applyChanges(Map<Long, CartChanges> changesByCart);
+}
@@ -0,0 +1,135 @@
+package book_store.repository.cartItem;
+
+import book_store.repository.SqlDialect;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Plain JDBC statements and batches, so the driver can send each batch in one round
+ * trip (rewriteBatchedStatements). They bypass the persistence context, which is
+ * flushed before and cleared after. Upserts are written once per {@link SqlDialect}.
+ */
+@RequiredArgsConstructor
+public class CartItemBatchRepositoryImpl implements CartItemBatchRepository {
+    private static final String ADD_TO_USER_CART = "insert into cartitems"
+            + " (shopping_cart_id, book_id, quantity, is_deleted)"
+            + " select s.id, b.id, ?, false from shoppingcarts s join books b"
+            + " on b.id = ? and b.is_deleted = false"
+            + " where s.user_id = ? and s.is_deleted = false order by s.id limit 1"
+            + " on duplicate key update cartitems.quantity = case when cartitems.is_deleted"
+            + " then ? else cartitems.quantity + ? end, cartitems.is_deleted = false";
+    private static final String H2_ADD_TO_USER_CART = "merge into cartitems c using ("
+            + "select s.id as shopping_cart_id, b.id as book_id, cast(? as int) as quantity"
+            + " from shoppingcarts s join books b on b.id = ? and b.is_deleted = false"
+            + " where s.user_id = ? and s.is_deleted = false order by s.id limit 1) n"
+            + " on c.shopping_cart_id = n.shopping_cart_id and c.book_id = n.book_id"
+            + " when matched then update set quantity = case when c.is_deleted"
+            + " then ? else c.quantity + ? end, is_deleted = false"
+            + " when not matched then insert (shopping_cart_id, book_id, quantity, is_deleted)"
+            + " values (n.shopping_cart_id, n.book_id, n.quantity, false)";
+    private static final String ADD = "insert into cartitems (shopping_cart_id, book_id, quantity, is_deleted)"
+            + " values (?, ?, ?, false) as new on duplicate key update cartitems.quantity = case"
+            + " when cartitems.is_deleted then new.quantity else cartitems.quantity + new.quantity end,"
+            + " cartitems.is_deleted = false";
+    private static final String SET_QUANTITY = "insert into cartitems"
+            + " (shopping_cart_id, book_id, quantity, is_deleted) values (?, ?, ?, false) as new"
+            + " on duplicate key update cartitems.quantity = new.quantity, cartitems.is_deleted = false";
+    private static final String H2_ADD = "merge into cartitems c using (select"
+            + " cast(? as bigint) as shopping_cart_id, cast(? as bigint) as book_id, cast(? as int) as quantity) n"
+            + " on c.shopping_cart_id = n.shopping_cart_id and c.book_id = n.book_id"
+            + " when matched then update set quantity = case when c.is_deleted"
+            + " then n.quantity else c.quantity + n.quantity end, is_deleted = false"
+            + " when not matched then insert (shopping_cart_id, book_id, quantity, is_deleted)"
+            + " values (n.shopping_cart_id, n.book_id, n.quantity, false)";
+    private static final String H2_SET_QUANTITY = "merge into cartitems c using (select"
+            + " cast(? as bigint) as shopping_cart_id, cast(? as bigint) as book_id, cast(? as int) as quantity) n"
+            + " on c.shopping_cart_id = n.shopping_cart_id and c.book_id = n.book_id"
+            + " when matched then update set quantity = n.quantity, is_deleted = false"
+            + " when not matched then insert (shopping_cart_id, book_id, quantity, is_deleted)"
+            + " values (n.shopping_cart_id, n.book_id, n.quantity, false)";
+    private static final String REMOVE = "update cartitems set is_deleted = true"
+            + " where shopping_cart_id = ? and book_id = ?";
+    private final EntityManager entityManager;
+
+    @Override
+    public int addToUserCart(Long userId, Long bookId, int quantity) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        int rows = session.doReturningWork(connection -> {
+            SqlDialect dialect = SqlDialect.of(connection);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    dialect == SqlDialect.H2 ? H2_ADD_TO_USER_CART : ADD_TO_USER_CART)) {
+                statement.setInt(1, quantity);
+                statement.setLong(2, bookId);
+                statement.setLong(3, userId);
+                statement.setInt(4, quantity);
+                statement.setInt(5, quantity);
+                return dialect.executeUpsert(statement);
+            }
+        });
+        session.clear();
+        return rows;
+    }
+
+    @Override
+    public void applyChanges(Long shoppingCartId, CartChanges changes) {
+        applyChanges(Map.of(shoppingCartId, changes));
+    }
+
+    @Override
+    public void applyChanges(Map<Long, CartChanges> changesByCart) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        session.doWork(connection -> {
+            SqlDialect dialect = SqlDialect.of(connection);
+            boolean h2 = dialect == SqlDialect.H2;
+            upsert(connection, dialect, h2 ? H2_ADD : ADD, changesByCart, CartChanges::added);
+            upsert(connection, dialect, h2 ? H2_SET_QUANTITY : SET_QUANTITY, changesByCart, CartChanges::quantities);
+            if (changesByCart.values().stream().anyMatch(changes -> !changes.removed().isEmpty())) {
+                try (PreparedStatement statement = connection.prepareStatement(REMOVE)) {
+                    for (Map.Entry<Long, CartChanges> cart : changesByCart.entrySet()) {
+                        for (Long bookId : cart.getValue().removed()) {
+                            statement.setLong(1, cart.getKey());
+                            statement.setLong(2, bookId);
+                            statement.addBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+            }
+        });
+        session.clear();
+    }
+
+    /** Batched on MySQL; on H2, which gains nothing from batching, merged row by row. */
+    private static void upsert(Connection connection, SqlDialect dialect, String sql,
+                               Map<Long, CartChanges> changesByCart,
+                               Function<CartChanges, Map<Long, Integer>> kind) throws SQLException {
+        if (changesByCart.values().stream().allMatch(changes -> kind.apply(changes).isEmpty())) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Map.Entry<Long, CartChanges> cart : changesByCart.entrySet()) {
+                for (Map.Entry<Long, Integer> line : kind.apply(cart.getValue()).entrySet()) {
+                    statement.setLong(1, cart.getKey());
+                    statement.setLong(2, line.getKey());
+                    statement.setInt(3, line.getValue());
+                    if (dialect == SqlDialect.H2) {
+                        dialect.executeUpsert(statement);
+                    } else {
+                        statement.addBatch();
+                    }
+                }
+            }
+            if (dialect != SqlDialect.H2) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
@@ -1,7 +1,25 @@
 package book_store.repository.category;
 
 import book_store.model.Category;
+import book_store.repository.EntityChange;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Query("select c.id from Category c")
+    Set<Long> findAllIds();
+
+    // locks the row, so a conditional update checks and writes without the change counter held
+    @Query(value = "select change_seq from categories where id = :id and is_deleted = false for update",
+            nativeQuery = true)
+    Optional<Long> findChangeSeqByIdForUpdate(Long id);
+
+    // native, so soft deletes show up in the feed; served from idx_categories_change_seq_id
+    @Query(value = "select id, change_seq as changeSeq, updated_at as updatedAt, is_deleted as deleted"
+            + " from categories where change_seq > :changeSeq or (change_seq = :changeSeq and id > :id)"
+            + " order by change_seq, id limit :limit", nativeQuery = true)
+    List<EntityChange> findChangesAfter(long changeSeq, long id, int limit);
 }
@@ -0,0 +1,9 @@
+package book_store.repository.order;
+
+import java.time.LocalDateTime;
+
+public interface OrderKey {
+    Long getId();
+
+    LocalDateTime getOrderDate();
+}
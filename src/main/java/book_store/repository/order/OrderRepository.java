@@ -2,16 +2,39 @@ package book_store.repository.order;
 
 import book_store.model.Order;
 import book_store.model.User;
+import book_store.repository.TwoPhasePaging;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    default Page<Order> findByUser(User user, Pageable pageable) {
+        return TwoPhasePaging.fetch(pageable, page -> findIdsByUser(user, page),
+                this::findAllByIdIn, Order::getId);
+    }
+
+    @Query("select o.id from Order o where o.user = :user")
+    Page<Long> findIdsByUser(User user, Pageable pageable);
+
+    @Query("select o.id as id, o.orderDate as orderDate from Order o where o.user = :user"
+            + " order by o.orderDate desc, o.id desc")
+    List<OrderKey> findLatestKeysByUser(User user, Limit limit);
+
+    @Query("select o.id as id, o.orderDate as orderDate from Order o where o.user = :user"
+            + " and (o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id))"
+            + " order by o.orderDate desc, o.id desc")
+    List<OrderKey> findKeysByUserAfter(User user, LocalDateTime orderDate, Long id, Limit limit);
+
     @EntityGraph(attributePaths = "orderItems")
-    Page<Order> findByUser(User user, Pageable pageable);
+    List<Order> findAllByIdIn(Collection<Long> ids);
 
     @EntityGraph(attributePaths = "orderItems")
     Optional<Order> findById(Long id);
@@ -0,0 +1,18 @@
+package book_store.repository.shoppingCart;
+
+import java.math.BigDecimal;
+
+/** A cart with one of its lines; the line columns are null for an empty cart. */
+public interface CartLineView {
+    Long getCartId();
+
+    Long getCartItemId();
+
+    Long getBookId();
+
+    String getBookTitle();
+
+    BigDecimal getPrice();
+
+    Integer getQuantity();
+}
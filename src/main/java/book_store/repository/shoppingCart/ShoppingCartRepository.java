@@ -2,15 +2,27 @@ package book_store.repository.shoppingCart;
 
 import book_store.model.ShoppingCart;
 import book_store.model.User;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 import java.util.Optional;
 
-public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
-    @EntityGraph(attributePaths = {"cartItems", "cartItems.book"})
-    Page<ShoppingCart> findByUserId(Long userId, Pageable pageable);
+public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long>, ShoppingCartUpsertRepository {
+    /** The user's first cart with its lines and their books, one row per line. */
+    @Query("select s.id as cartId, ci.id as cartItemId, b.id as bookId, b.title as bookTitle,"
+            + " b.price as price, ci.quantity as quantity"
+            + " from ShoppingCart s left join s.cartItems ci left join ci.book b"
+            + " where s.id = (select min(f.id) from ShoppingCart f where f.user.id = :userId)"
+            + " order by ci.id")
+    List<CartLineView> findCartLinesByUserId(Long userId);
 
     Optional<ShoppingCart> findByUser(User currentUser);
+
+    @Query("select s.id from ShoppingCart s where s.user.id = :userId order by s.id")
+    List<Long> findCartIdsByUserId(Long userId, Limit limit);
+
+    @EntityGraph(attributePaths = {"cartItems", "cartItems.book"})
+    Optional<ShoppingCart> findFirstWithItemsByUserIdOrderById(Long userId);
 }
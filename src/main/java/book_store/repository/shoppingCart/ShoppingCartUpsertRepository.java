@@ -0,0 +1,9 @@
+package book_store.repository.shoppingCart;
+
+public interface ShoppingCartUpsertRepository {
+    /**
+     * Creates the user's cart unless it exists, reviving it if it was removed. Relies on
+     * the unique user_id key, so concurrent first writes end up with the same cart.
+     */
+    int createForUser(Long userId);
+}
@@ -0,0 +1,34 @@
+package book_store.repository.shoppingCart;
+
+import book_store.repository.SqlDialect;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import java.sql.PreparedStatement;
+
+@RequiredArgsConstructor
+public class ShoppingCartUpsertRepositoryImpl implements ShoppingCartUpsertRepository {
+    private static final String CREATE_FOR_USER = "insert into shoppingcarts (user_id, is_deleted)"
+            + " values (?, false) on duplicate key update is_deleted = false";
+    private static final String H2_CREATE_FOR_USER = "merge into shoppingcarts s"
+            + " using (select cast(? as bigint) as user_id) n on s.user_id = n.user_id"
+            + " when matched then update set is_deleted = false"
+            + " when not matched then insert (user_id, is_deleted) values (n.user_id, false)";
+    private final EntityManager entityManager;
+
+    @Override
+    public int createForUser(Long userId) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        int rows = session.doReturningWork(connection -> {
+            SqlDialect dialect = SqlDialect.of(connection);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    dialect == SqlDialect.H2 ? H2_CREATE_FOR_USER : CREATE_FOR_USER)) {
+                statement.setLong(1, userId);
+                return dialect.executeUpsert(statement);
+            }
+        });
+        session.clear();
+        return rows;
+    }
+}
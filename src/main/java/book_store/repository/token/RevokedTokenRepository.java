@@ -0,0 +1,25 @@
+package book_store.repository.token;
+
+import book_store.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    // a plain insert, so a jti already in the table fails on the primary key instead of being merged
+    @Modifying
+    @Transactional
+    @Query(value = "insert into revoked_tokens (jti, expires_at) values (:jti, :expiresAt)", nativeQuery = true)
+    int insert(String jti, LocalDateTime expiresAt);
+
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveJtis(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package book_store.search;
+
+import book_store.service.BookWriteListener;
+
+/**
+ * In-memory view of the catalog that {@link BookIndexLoader} fills from the
+ * database on startup and {@code BookServiceImpl} keeps current on every write.
+ */
+public interface BookIndex extends BookWriteListener {
+    default void beforeLoad() {
+    }
+
+    default void afterLoad() {
+    }
+}
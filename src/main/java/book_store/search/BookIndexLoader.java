@@ -0,0 +1,76 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.repository.book.BookRepository;
+import book_store.service.BookWriteListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fills the book indexes from the database on startup, refusing traffic until
+ * done. Writes committed during the load reach the indexes directly but may be
+ * overwritten by an older copy the load read before the commit, so they are also
+ * recorded and replayed once the load is through. Recording has to come before
+ * the indexes see a write, hence the highest precedence among the listeners.
+ */
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Component
+public class BookIndexLoader implements BookWriteListener {
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final List<BookIndex> bookIndexes;
+    private final ApplicationEventPublisher eventPublisher;
+    private List<Consumer<BookIndex>> writesDuringLoad;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        synchronized (this) {
+            writesDuringLoad = new ArrayList<>();
+        }
+        bookIndexes.forEach(BookIndex::beforeLoad);
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = bookRepository.findIdsAfter(afterId, Limit.of(LOAD_BATCH_SIZE));
+            for (Book book : bookRepository.findAllByIdIn(ids)) {
+                bookIndexes.forEach(index -> index.bookSaved(book));
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_BATCH_SIZE);
+        synchronized (this) {
+            writesDuringLoad.forEach(bookIndexes::forEach);
+            writesDuringLoad = null;
+        }
+        bookIndexes.forEach(BookIndex::afterLoad);
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Override
+    public synchronized void bookSaved(Book book) {
+        if (writesDuringLoad != null) {
+            writesDuringLoad.add(index -> index.bookSaved(book));
+        }
+    }
+
+    @Override
+    public synchronized void bookDeleted(Book book) {
+        if (writesDuringLoad != null) {
+            writesDuringLoad.add(index -> index.bookDeleted(book));
+        }
+    }
+}
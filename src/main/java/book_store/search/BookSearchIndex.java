@@ -0,0 +1,43 @@
+package book_store.search;
+
+import book_store.model.Book;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookSearchIndex implements BookIndex {
+    private final InvertedIndex index = new InvertedIndex();
+
+    public SearchResult search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    /**
+     * Matching books as a bitmap to intersect with category filters; ids beyond the
+     * int range are left out, as {@link CategoryBitmapIndex} never holds them.
+     */
+    public RoaringBitmap matching(String query) {
+        RoaringBitmap books = new RoaringBitmap();
+        index.forEachMatch(query, id -> {
+            if (id <= Integer.MAX_VALUE) {
+                books.add((int) id);
+            }
+        });
+        return books;
+    }
+
+    @Override
+    public void bookSaved(Book book) {
+        index.put(book.getId(), String.join(" ",
+                nullToEmpty(book.getTitle()), nullToEmpty(book.getAuthor()), nullToEmpty(book.getDescription())));
+    }
+
+    @Override
+    public void bookDeleted(Book book) {
+        index.remove(book.getId());
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
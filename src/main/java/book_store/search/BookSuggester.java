@@ -0,0 +1,95 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.repository.book.BookPopularity;
+import book_store.repository.book.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Title and author completions weighted by popularity. A book weighs one plus the
+ * number of copies ordered, and an author weighs the sum of their books.
+ */
+@RequiredArgsConstructor
+@Component
+public class BookSuggester implements BookIndex {
+    private final BookRepository bookRepository;
+    private final SuggestionTrie trie = new SuggestionTrie();
+    private final Map<Long, SuggestedBook> books = new HashMap<>();
+    private Map<Long, Long> copiesSold = Map.of();
+
+    public List<String> suggest(String prefix, int limit) {
+        return trie.complete(prefix, limit);
+    }
+
+    @Override
+    public synchronized void beforeLoad() {
+        copiesSold = loadCopiesSold();
+    }
+
+    @Override
+    public synchronized void bookSaved(Book book) {
+        SuggestedBook suggested = new SuggestedBook(book.getTitle(), book.getAuthor(),
+                1 + copiesSold.getOrDefault(book.getId(), 0L));
+        replace(books.put(book.getId(), suggested), suggested);
+    }
+
+    @Override
+    public synchronized void bookDeleted(Book book) {
+        replace(books.remove(book.getId()), null);
+    }
+
+    @Scheduled(initialDelayString = "${search.suggest.popularity-refresh-interval:3600000}",
+            fixedDelayString = "${search.suggest.popularity-refresh-interval:3600000}")
+    public void refreshPopularity() {
+        Map<Long, Long> latest = loadCopiesSold();
+        synchronized (this) {
+            copiesSold = latest;
+            books.replaceAll((id, previous) -> {
+                long weight = 1 + latest.getOrDefault(id, 0L);
+                if (weight == previous.weight()) {
+                    return previous;
+                }
+                SuggestedBook updated = new SuggestedBook(previous.title(), previous.author(), weight);
+                replace(previous, updated);
+                return updated;
+            });
+        }
+    }
+
+    private void replace(SuggestedBook previous, SuggestedBook current) {
+        if (previous != null) {
+            removeIfPresent(previous.title(), previous.weight());
+            removeIfPresent(previous.author(), previous.weight());
+        }
+        if (current != null) {
+            addIfPresent(current.title(), current.weight());
+            addIfPresent(current.author(), current.weight());
+        }
+    }
+
+    private void addIfPresent(String text, long weight) {
+        if (text != null) {
+            trie.add(text, weight);
+        }
+    }
+
+    private void removeIfPresent(String text, long weight) {
+        if (text != null) {
+            trie.remove(text, weight);
+        }
+    }
+
+    private Map<Long, Long> loadCopiesSold() {
+        return bookRepository.findPopularity().stream()
+                .collect(Collectors.toMap(BookPopularity::getBookId, BookPopularity::getCopies));
+    }
+
+    private record SuggestedBook(String title, String author, long weight) {
+    }
+}
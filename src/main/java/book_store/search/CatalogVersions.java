@@ -0,0 +1,102 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.model.Category;
+import book_store.repository.category.CategoryRepository;
+import book_store.service.ChangeSequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current change_seq of every book and category, kept in memory so conditional
+ * requests can be answered without a query. Updated after each commit; the
+ * categories and catalog versions only grow and cover deletes too. Until the
+ * first load everything is unknown and callers fall back to a normal request.
+ */
+@RequiredArgsConstructor
+@Component
+public class CatalogVersions implements BookIndex {
+    private final CategoryRepository categoryRepository;
+    private final ChangeSequence changeSequence;
+    private final Map<Long, Long> books = new ConcurrentHashMap<>();
+    private final Map<Long, Long> categories = new ConcurrentHashMap<>();
+    private final AtomicLong categoriesVersion = new AtomicLong();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile boolean loaded;
+
+    /** The book's change_seq, or {@code null} when the book is unknown or deleted. */
+    public Long bookVersion(Long id) {
+        return live(books.get(id));
+    }
+
+    /** The category's change_seq, or {@code null} when the category is unknown or deleted. */
+    public Long categoryVersion(Long id) {
+        return live(categories.get(id));
+    }
+
+    /** Grows with every category write; {@code null} before the first load. */
+    public Long categoriesVersion() {
+        return loaded ? categoriesVersion.get() : null;
+    }
+
+    /** Grows with every book or category write; {@code null} before the first load. */
+    public Long catalogVersion() {
+        return loaded ? catalogVersion.get() : null;
+    }
+
+    @Override
+    public void beforeLoad() {
+        // the counter covers deleted rows too, which a max over live rows would miss
+        long current = changeSequence.current();
+        for (Category category : categoryRepository.findAll()) {
+            categories.merge(category.getId(), category.getChangeSeq(), CatalogVersions::newer);
+        }
+        categoriesVersion.accumulateAndGet(current, Math::max);
+        catalogVersion.accumulateAndGet(current, Math::max);
+        loaded = true;
+    }
+
+    @Override
+    public void bookSaved(Book book) {
+        books.merge(book.getId(), book.getChangeSeq(), CatalogVersions::newer);
+        catalogVersion.accumulateAndGet(book.getChangeSeq(), Math::max);
+    }
+
+    @Override
+    public void bookDeleted(Book book) {
+        books.merge(book.getId(), ~book.getChangeSeq(), CatalogVersions::newer);
+        catalogVersion.accumulateAndGet(book.getChangeSeq(), Math::max);
+    }
+
+    public void categorySaved(Category category) {
+        categories.merge(category.getId(), category.getChangeSeq(), CatalogVersions::newer);
+        categoryChanged(category.getChangeSeq());
+    }
+
+    public void categoryDeleted(Category category) {
+        categories.merge(category.getId(), ~category.getChangeSeq(), CatalogVersions::newer);
+        categoryChanged(category.getChangeSeq());
+    }
+
+    private void categoryChanged(long changeSeq) {
+        categoriesVersion.accumulateAndGet(changeSeq, Math::max);
+        catalogVersion.accumulateAndGet(changeSeq, Math::max);
+    }
+
+    /**
+     * After-commit callbacks of consecutive writes can run out of order, so the higher
+     * change_seq wins. Deletes are kept as {@code ~changeSeq} for the same reason.
+     */
+    private static Long newer(Long current, Long candidate) {
+        long currentSeq = current < 0 ? ~current : current;
+        long candidateSeq = candidate < 0 ? ~candidate : candidate;
+        return candidateSeq >= currentSeq ? candidate : current;
+    }
+
+    private Long live(Long version) {
+        return !loaded || version == null || version < 0 ? null : version;
+    }
+}
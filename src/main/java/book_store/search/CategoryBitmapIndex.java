@@ -0,0 +1,168 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.model.Category;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Mirror of book_category as one compressed bitmap of book ids per category, so
+ * category filters are bitmap AND/OR operations and facet counts are
+ * intersection cardinalities. Bitmaps hold {@code int}s, so a book id beyond
+ * {@link Integer#MAX_VALUE} is rejected rather than indexed.
+ */
+@Component
+public class CategoryBitmapIndex implements BookIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RoaringBitmap> booksByCategory = new HashMap<>();
+    private final Map<Long, Set<Long>> categoriesByBook = new HashMap<>();
+    private final RoaringBitmap allBooks = new RoaringBitmap();
+    private volatile boolean loaded;
+
+    /** Whether the startup load has finished; until then the bitmaps hold only the books written since. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void afterLoad() {
+        loaded = true;
+    }
+
+    @Override
+    public void bookSaved(Book book) {
+        int bookId = bitmapId(book.getId());
+        Set<Long> categoryIds = book.getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        lock.writeLock().lock();
+        try {
+            removeMemberships(book.getId());
+            allBooks.add(bookId);
+            categoriesByBook.put(book.getId(), categoryIds);
+            for (Long categoryId : categoryIds) {
+                booksByCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void bookDeleted(Book book) {
+        int bookId = bitmapId(book.getId());
+        lock.writeLock().lock();
+        try {
+            removeMemberships(book.getId());
+            allBooks.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void categoryDeleted(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap books = booksByCategory.remove(categoryId);
+            if (books != null) {
+                books.forEach((int bookId) -> categoriesByBook.get((long) bookId).remove(categoryId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books in all (or, with {@code any}, in at least one) of the given categories;
+     * every book when no category is given. The result is a copy owned by the caller.
+     */
+    public RoaringBitmap filter(Collection<Long> categoryIds, boolean any) {
+        lock.readLock().lock();
+        try {
+            if (categoryIds.isEmpty()) {
+                return allBooks.clone();
+            }
+            List<RoaringBitmap> bitmaps = new ArrayList<>(categoryIds.size());
+            for (Long categoryId : categoryIds) {
+                RoaringBitmap books = booksByCategory.get(categoryId);
+                if (books != null) {
+                    bitmaps.add(books);
+                } else if (!any) {
+                    return new RoaringBitmap();
+                }
+            }
+            if (bitmaps.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            if (bitmaps.size() == 1) {
+                return bitmaps.get(0).clone();
+            }
+            return any ? FastAggregation.or(bitmaps.iterator()) : FastAggregation.and(bitmaps.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, Integer> facets(RoaringBitmap books) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> counts = new HashMap<>();
+            booksByCategory.forEach((categoryId, categoryBooks) -> {
+                int count = RoaringBitmap.andCardinality(categoryBooks, books);
+                if (count > 0) {
+                    counts.put(categoryId, count);
+                }
+            });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static int bitmapId(long bookId) {
+        if (bookId < 0 || bookId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Book id " + bookId + " does not fit in a category bitmap");
+        }
+        return (int) bookId;
+    }
+
+    public static List<Long> page(RoaringBitmap books, long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (offset >= books.getLongCardinality()) {
+            return ids;
+        }
+        PeekableIntIterator iterator = books.getIntIterator();
+        iterator.advanceIfNeeded(books.select((int) offset));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    private void removeMemberships(Long bookId) {
+        Set<Long> previous = categoriesByBook.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        for (Long categoryId : previous) {
+            RoaringBitmap books = booksByCategory.get(categoryId);
+            if (books != null) {
+                books.remove(bookId.intValue());
+                if (books.isEmpty()) {
+                    booksByCategory.remove(categoryId);
+                }
+            }
+        }
+    }
+}
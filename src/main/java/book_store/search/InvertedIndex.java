@@ -0,0 +1,331 @@
+package book_store.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory inverted index ranked with BM25. Documents get increasing internal
+ * numbers, so every postings list stays sorted and AND queries are answered by
+ * intersecting lists starting from the shortest one. Removed and replaced
+ * documents are tombstoned and dropped from the postings by periodic compaction.
+ *
+ * <p>Query syntax: terms are ANDed; the keyword {@code OR} separates alternatives,
+ * e.g. {@code "tolkien hobbit OR silmarillion"}.
+ */
+public class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final String OR = "OR";
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    private static final Comparator<ScoredDoc> BY_RANK = Comparator
+            .comparingDouble(ScoredDoc::score)
+            .thenComparing(ScoredDoc::id, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docsById = new HashMap<>();
+    private long[] ids = new long[1024];
+    private int[] lengths = new int[1024];
+    private boolean[] deleted = new boolean[1024];
+    private int docCount;
+    private int tombstones;
+    private long totalLength;
+
+    public void put(long id, String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            ids[doc] = id;
+            lengths[doc] = tokens.size();
+            totalLength += tokens.size();
+            docsById.put(id, doc);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        List<List<String>> clauses = parse(query);
+        if (clauses.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+            Scores scores = new Scores(clauses.size() > 1, wanted);
+            for (List<String> clause : clauses) {
+                matchAll(clause, scores);
+            }
+            return scores.top(offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEachMatch(String query, LongConsumer action) {
+        List<List<String>> clauses = parse(query);
+        lock.readLock().lock();
+        try {
+            BitSet seen = new BitSet();
+            for (List<String> clause : clauses) {
+                matchAll(clause, (doc, score) -> {
+                    if (!seen.get(doc)) {
+                        seen.set(doc);
+                        action.accept(ids[doc]);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<List<String>> parse(String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        Set<String> clause = new LinkedHashSet<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (OR.equals(word)) {
+                addClause(clauses, clause);
+                clause = new LinkedHashSet<>();
+            } else {
+                clause.addAll(Tokenizer.tokenize(word));
+            }
+        }
+        addClause(clauses, clause);
+        return clauses;
+    }
+
+    private void addClause(List<List<String>> clauses, Set<String> clause) {
+        if (!clause.isEmpty()) {
+            clauses.add(List.copyOf(clause));
+        }
+    }
+
+    private void matchAll(List<String> terms, MatchSink sink) {
+        Postings[] lists = new Postings[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        int liveDocs = docsById.size();
+        double averageLength = liveDocs == 0 ? 0 : (double) totalLength / liveDocs;
+        double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            double df = lists[i].size();
+            idf[i] = Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+        }
+        int[] cursors = new int[lists.length];
+        Postings lead = lists[0];
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int doc = lead.docs[i];
+            if (deleted[doc]) {
+                continue;
+            }
+            double score = bm25(idf[0], lead.frequencies[i], doc, averageLength);
+            for (int l = 1; l < lists.length; l++) {
+                Postings list = lists[l];
+                cursors[l] = list.advance(cursors[l], doc);
+                if (cursors[l] == list.size || list.docs[cursors[l]] != doc) {
+                    if (cursors[l] == list.size) {
+                        break candidates;
+                    }
+                    continue candidates;
+                }
+                score += bm25(idf[l], list.frequencies[cursors[l]], doc, averageLength);
+            }
+            sink.accept(doc, score);
+        }
+    }
+
+    private double bm25(double idf, int frequency, int doc, double averageLength) {
+        double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private void removeLocked(long id) {
+        Integer doc = docsById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        deleted[doc] = true;
+        totalLength -= lengths[doc];
+        tombstones++;
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > docsById.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted[doc]) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = live;
+                ids[live] = ids[doc];
+                lengths[live] = lengths[doc];
+                deleted[live] = false;
+                docsById.put(ids[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(deleted, live, docCount, false);
+        docCount = live;
+        tombstones = 0;
+        postings.values().removeIf(list -> list.remap(remap) == 0);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newLength = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+            deleted = Arrays.copyOf(deleted, newLength);
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + step;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int index = Arrays.binarySearch(docs, low + 1, Math.min(high + 1, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+
+    private interface MatchSink {
+        void accept(int doc, double score);
+    }
+
+    private record ScoredDoc(long id, double score) {
+    }
+
+    private class Scores implements MatchSink {
+        private final Map<Integer, Double> merged;
+        private final PriorityQueue<ScoredDoc> heap;
+        private final int wanted;
+        private int matches;
+
+        Scores(boolean disjunction, int wanted) {
+            this.merged = disjunction ? new HashMap<>() : null;
+            this.wanted = wanted;
+            this.heap = new PriorityQueue<>(Math.min(wanted, 1024), BY_RANK);
+        }
+
+        @Override
+        public void accept(int doc, double score) {
+            if (merged != null) {
+                merged.merge(doc, score, Math::max);
+            } else {
+                offer(doc, score);
+            }
+        }
+
+        SearchResult top(int offset) {
+            if (merged != null) {
+                merged.forEach(this::offer);
+            }
+            List<ScoredDoc> ranked = new ArrayList<>(heap);
+            ranked.sort(BY_RANK.reversed());
+            List<SearchHit> hits = ranked.subList(Math.min(offset, ranked.size()), ranked.size()).stream()
+                    .map(doc -> new SearchHit(doc.id(), doc.score()))
+                    .toList();
+            return new SearchResult(hits, matches);
+        }
+
+        private void offer(int doc, double score) {
+            matches++;
+            if (heap.size() < wanted) {
+                heap.add(new ScoredDoc(ids[doc], score));
+            } else if (score > heap.peek().score()
+                    || (score == heap.peek().score() && ids[doc] < heap.peek().id())) {
+                heap.poll();
+                heap.add(new ScoredDoc(ids[doc], score));
+            }
+        }
+    }
+}
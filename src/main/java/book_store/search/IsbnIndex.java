@@ -0,0 +1,71 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.validation.IsbnValidator;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Book id by ISBN-13, with the thirteen digits packed into a {@code long}. Lookups
+ * read optimistically and fall back to the read lock only when they raced a write,
+ * so they take no lock and allocate nothing. Books whose isbn is not thirteen digits
+ * are not indexed.
+ */
+@Component
+public class IsbnIndex implements BookIndex {
+    private final StampedLock lock = new StampedLock();
+    private final LongLongHashMap idsByIsbn = new LongLongHashMap();
+    private final LongLongHashMap isbnsById = new LongLongHashMap();
+
+    @Override
+    public void bookSaved(Book book) {
+        long isbn = IsbnValidator.toLong(book.getIsbn());
+        long stamp = lock.writeLock();
+        try {
+            remove(book.getId());
+            if (isbn > 0) {
+                idsByIsbn.put(isbn, book.getId());
+                isbnsById.put(book.getId(), isbn);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void bookDeleted(Book book) {
+        long stamp = lock.writeLock();
+        try {
+            remove(book.getId());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** The id of the book with this isbn, or {@code -1} when there is none. */
+    public long find(CharSequence isbn) {
+        long key = IsbnValidator.toLong(isbn);
+        if (key <= 0) {
+            return LongLongHashMap.NO_VALUE;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long id = idsByIsbn.get(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                id = idsByIsbn.get(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return id;
+    }
+
+    private void remove(Long bookId) {
+        long previous = isbnsById.remove(bookId);
+        // the isbn may already belong to another book if that write was applied first
+        if (previous != LongLongHashMap.NO_VALUE && idsByIsbn.get(previous) == bookId) {
+            idsByIsbn.remove(previous);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package book_store.search;
+
+/**
+ * Open-addressing map from {@code long} to {@code long} with linear probing, so keys
+ * and values are never boxed. Keys and values sit side by side in one array, which
+ * lets a reader that raced a writer index it safely; callers detect the race and
+ * retry. Key {@code 0} marks an empty slot and cannot be stored; values must not be
+ * negative, {@link #NO_VALUE} means absent. Not thread-safe.
+ */
+final class LongLongHashMap {
+    static final long NO_VALUE = -1;
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.5;
+
+    private long[] table = new long[2 * MIN_CAPACITY];
+    private int size;
+
+    long get(long key) {
+        long[] entries = table;
+        int mask = entries.length / 2 - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            long current = entries[2 * slot];
+            if (current == key) {
+                return entries[2 * slot + 1];
+            }
+            if (current == EMPTY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    long put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 cannot be stored");
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative");
+        }
+        int mask = table.length / 2 - 1;
+        int slot = slot(key, mask);
+        while (table[2 * slot] != EMPTY) {
+            if (table[2 * slot] == key) {
+                long previous = table[2 * slot + 1];
+                table[2 * slot + 1] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[2 * slot + 1] = value;
+        table[2 * slot] = key;
+        if (++size > (mask + 1) * MAX_LOAD) {
+            resize(2 * (mask + 1));
+        }
+        return NO_VALUE;
+    }
+
+    long remove(long key) {
+        int mask = table.length / 2 - 1;
+        int slot = slot(key, mask);
+        while (table[2 * slot] != key) {
+            if (table[2 * slot] == EMPTY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long previous = table[2 * slot + 1];
+        // backward-shift deletion: pull later entries of the probe run into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[2 * next] != EMPTY) {
+            int home = slot(table[2 * next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[2 * gap] = table[2 * next];
+                table[2 * gap + 1] = table[2 * next + 1];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[2 * gap] = EMPTY;
+        table[2 * gap + 1] = 0;
+        size--;
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] previous = table;
+        long[] entries = new long[2 * capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < previous.length; i += 2) {
+            if (previous[i] != EMPTY) {
+                int slot = slot(previous[i], mask);
+                while (entries[2 * slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                entries[2 * slot] = previous[i];
+                entries[2 * slot + 1] = previous[i + 1];
+            }
+        }
+        table = entries;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
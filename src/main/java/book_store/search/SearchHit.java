@@ -0,0 +1,4 @@
+package book_store.search;
+
+public record SearchHit(long id, double score) {
+}
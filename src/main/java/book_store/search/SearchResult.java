@@ -0,0 +1,6 @@
+package book_store.search;
+
+import java.util.List;
+
+public record SearchResult(List<SearchHit> hits, int totalHits) {
+}
@@ -0,0 +1,319 @@
+package book_store.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie of suggestions for prefix completion. Keys are case-folded with
+ * whitespace collapsed; every node stores the largest weight found below it, so
+ * the top-k completions of a prefix are found best-first without visiting the
+ * rest of the subtree. The same text may be added several times; its weights add
+ * up and it disappears once every addition has been removed.
+ *
+ * <p>Retained heap on a 64-bit JVM with compressed oops for titles of two to five
+ * words (about 26 characters), as counted by {@link #retainedBytes()}: about 225
+ * bytes per distinct entry, i.e. roughly 225 MB per million titles. Most of it is
+ * the display string and the edge labels. {@code SuggestionTrieBenchmark} reports
+ * about 318 bytes allocated per title; the difference is garbage of the build
+ * itself (normalized keys, split edges, replaced child arrays).
+ */
+public class SuggestionTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingLong(Candidate::weight).reversed()
+            .thenComparing(Candidate::terminal, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private int size;
+
+    public void add(String text, long weight) {
+        String key = normalize(text).trim();
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(root, key, 0, text.trim(), weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String text, long weight) {
+        String key = normalize(text).trim();
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            delete(root, key, 0, weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retained heap of the trie in bytes, counted from its nodes, child arrays and
+     * strings with the object layout of a 64-bit JVM with compressed oops.
+     */
+    long retainedBytes() {
+        lock.readLock().lock();
+        try {
+            return retainedBytes(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            return node == null ? List.of() : top(node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int remaining = key.length() - position;
+            if (child.edge.length() > remaining) {
+                return child.edge.startsWith(key.substring(position)) ? child : null;
+            }
+            if (!key.startsWith(child.edge, position)) {
+                return null;
+            }
+            position += child.edge.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private List<String> top(Node start, int limit) {
+        List<String> completions = new ArrayList<>(limit);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Candidate(start, start.maxWeight, false));
+        while (!queue.isEmpty() && completions.size() < limit) {
+            Candidate candidate = queue.poll();
+            Node node = candidate.node();
+            if (candidate.terminal()) {
+                completions.add(node.display);
+                continue;
+            }
+            if (node.display != null) {
+                queue.add(new Candidate(node, node.weight, true));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child, child.maxWeight, false));
+            }
+        }
+        return completions;
+    }
+
+    private void insert(Node node, String key, int position, String display, long weight) {
+        if (position == key.length()) {
+            if (node.references == 0) {
+                size++;
+            }
+            node.references++;
+            node.weight += weight;
+            node.display = display;
+        } else {
+            int index = node.indexOf(key.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(position));
+                insert(leaf, key, key.length(), display, weight);
+                node.insertChild(-index - 1, leaf);
+            } else {
+                Node child = node.children[index];
+                int common = commonPrefix(child.edge, key, position);
+                if (common < child.edge.length()) {
+                    Node middle = new Node(child.edge.substring(0, common));
+                    child.edge = child.edge.substring(common);
+                    middle.children = new Node[] {child};
+                    middle.maxWeight = child.maxWeight;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                insert(child, key, position + common, display, weight);
+            }
+        }
+        node.updateMaxWeight();
+    }
+
+    private boolean delete(Node node, String key, int position, long weight) {
+        if (position == key.length()) {
+            if (node.references == 0) {
+                return false;
+            }
+            node.references--;
+            node.weight -= weight;
+            if (node.references == 0) {
+                node.display = null;
+                node.weight = 0;
+                size--;
+            }
+            node.updateMaxWeight();
+            return true;
+        }
+        int index = node.indexOf(key.charAt(position));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        if (!key.startsWith(child.edge, position)
+                || !delete(child, key, position + child.edge.length(), weight)) {
+            return false;
+        }
+        if (child.display == null && child.children.length == 0) {
+            node.removeChild(index);
+        } else if (child.display == null && child.children.length == 1) {
+            Node grandchild = child.children[0];
+            grandchild.edge = child.edge + grandchild.edge;
+            node.children[index] = grandchild;
+        }
+        node.updateMaxWeight();
+        return true;
+    }
+
+    private static long retainedBytes(Node node) {
+        // header and six fields; a child array is a header, a length and a reference per child
+        long bytes = align(12 + 3 * 4 + 2 * 8 + 4) + stringBytes(node.edge) + stringBytes(node.display);
+        if (node.children.length > 0) {
+            bytes += align(16 + 4L * node.children.length);
+        }
+        for (Node child : node.children) {
+            bytes += retainedBytes(child);
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c <= 0xFF);
+        return align(24) + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int commonPrefix(String edge, String key, int position) {
+        int length = Math.min(edge.length(), key.length() - position);
+        int i = 0;
+        while (i < length && edge.charAt(i) == key.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !key.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    key.append(' ');
+                    pendingSpace = false;
+                }
+                key.append(c);
+            }
+        }
+        if (pendingSpace) {
+            key.append(' ');
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node {
+        private String edge;
+        private Node[] children = NO_CHILDREN;
+        private String display;
+        private long weight;
+        private long maxWeight;
+        private int references;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children[index];
+        }
+
+        int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children[middle].edge.charAt(0);
+                if (c < first) {
+                    low = middle + 1;
+                } else if (c > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        void updateMaxWeight() {
+            long max = display == null ? Long.MIN_VALUE : weight;
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private record Candidate(Node node, long weight, boolean terminal) {
+    }
+}
@@ -2,23 +2,60 @@ package book_store.security;
 
 import book_store.dto.user.UserLoginRequestDto;
 import book_store.dto.user.UserLoginResponseDto;
+import book_store.model.User;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 @Service
 public class AuthenticationService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final LoginLane loginLane;
+    private final RevocationList revocationList;
+    private final PrincipalCache principalCache;
+    private final UserDetailsService userDetailsService;
 
-    public UserLoginResponseDto authenticate(UserLoginRequestDto request) {
-        final Authentication authentication = authenticationManager.authenticate(
+    public CompletableFuture<UserLoginResponseDto> authenticate(UserLoginRequestDto request) {
+        return loginLane.submit(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.email(), request.password())
-        );
-        String token = jwtUtil.generateToken(authentication.getName());
-        return new UserLoginResponseDto(token);
+        )).thenApply(authentication -> issueToken((User) authentication.getPrincipal()));
+    }
+
+    public UserLoginResponseDto issueToken(User user) {
+        return new UserLoginResponseDto(jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user));
+    }
+
+    public UserLoginResponseDto refresh(String refreshToken) {
+        Claims claims = getRefreshClaims(refreshToken);
+        if (!revocationList.revoke(claims.getId(), claims.getExpiration())) {
+            throw new BadCredentialsException("Refresh token has been revoked");
+        }
+        User user = (User) principalCache.get(claims.getSubject(), userDetailsService::loadUserByUsername);
+        return issueToken(user);
+    }
+
+    public void logout(String refreshToken, String accessToken) {
+        Claims claims = getRefreshClaims(refreshToken);
+        revocationList.revoke(claims.getId(), claims.getExpiration());
+        if (accessToken != null) {
+            jwtUtil.verify(accessToken)
+                    .filter(access -> claims.getSubject().equals(access.getSubject()))
+                    .filter(access -> access.getId() != null)
+                    .ifPresent(access -> revocationList.revoke(access.getId(), access.getExpiration()));
+        }
+    }
+
+    private Claims getRefreshClaims(String refreshToken) {
+        return jwtUtil.verify(refreshToken)
+                .filter(claims -> JwtUtil.REFRESH_TOKEN.equals(claims.get(JwtUtil.TOKEN_TYPE_CLAIM)))
+                .filter(claims -> claims.getId() != null && !revocationList.isRevoked(claims.getId()))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
     }
 }
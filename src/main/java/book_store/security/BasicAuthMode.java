@@ -0,0 +1,7 @@
+package book_store.security;
+
+public enum BasicAuthMode {
+    ENABLED,
+    EXCHANGE,
+    CACHED
+}
@@ -1,5 +1,9 @@
 package book_store.security;
 
+import book_store.model.Role;
+import book_store.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -10,16 +14,34 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final RevocationList revocationList;
+    private final boolean principalFromClaims;
+
+    public JwtAuthenticationFilter(
+            JwtUtil jwtUtil,
+            UserDetailsService userDetailsService,
+            PrincipalCache principalCache,
+            RevocationList revocationList,
+            @Value("${security.principal-from-claims:false}") boolean principalFromClaims) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.principalFromClaims = principalFromClaims;
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -27,9 +49,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             FilterChain filterChain)
             throws ServletException, IOException {
         String token = getToken(request);
-        if (token != null && jwtUtil.isValidToken(token)) {
-            String username = jwtUtil.getUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        Optional<Claims> claims = token == null ? Optional.empty() : jwtUtil.verify(token)
+                .filter(this::isUsableAccessToken);
+        if (claims.isPresent()) {
+            UserDetails userDetails = getPrincipal(claims.get());
             Authentication authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities()
             );
@@ -38,6 +61,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isUsableAccessToken(Claims claims) {
+        if (JwtUtil.REFRESH_TOKEN.equals(claims.get(JwtUtil.TOKEN_TYPE_CLAIM))) {
+            return false;
+        }
+        return claims.getId() == null || !revocationList.isRevoked(claims.getId());
+    }
+
+    private UserDetails getPrincipal(Claims claims) {
+        if (principalFromClaims && claims.containsKey(JwtUtil.USER_ID_CLAIM)
+                && claims.containsKey(JwtUtil.ROLES_CLAIM)) {
+            return principalFromClaims(claims);
+        }
+        return principalCache.get(claims.getSubject(), userDetailsService::loadUserByUsername);
+    }
+
+    private User principalFromClaims(Claims claims) {
+        User user = new User();
+        user.setId(claims.get(JwtUtil.USER_ID_CLAIM, Long.class));
+        user.setEmail(claims.getSubject());
+        List<?> roleNames = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        user.setRoles(roleNames.stream()
+                .map(name -> {
+                    Role role = new Role();
+                    role.setName(Role.RoleName.valueOf(name.toString()));
+                    return role;
+                })
+                .collect(Collectors.toSet()));
+        return user;
+    }
+
     private String getToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer")) {
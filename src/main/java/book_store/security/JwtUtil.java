@@ -1,58 +1,173 @@
 package book_store.security;
 
+import book_store.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
-    private Key secret;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+    private static final Duration REJECTED_TOKEN_TTL = Duration.ofMinutes(1);
+    private final Key secret;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedClaims;
+    private final Cache<String, Boolean> rejectedTokens;
     @Value("${jwt.expiration}")
     private long expiration;
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpiration;
 
-    public JwtUtil(@Value("${jwt.secret}") String secretString) {
+    public JwtUtil(
+            @Value("${jwt.secret}") String secretString,
+            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheSize) {
         secret = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(secret)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .build();
+        rejectedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfterWrite(REJECTED_TOKEN_TTL)
+                .build();
     }
 
-    public String generateToken(String username) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN)
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, user.getRoles().stream()
+                        .map(role -> role.getName().name())
+                        .toList())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(secret)
                 .compact();
     }
 
-    public boolean isValidToken(String token) {
+    public String generateRefreshToken(User user) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
+                .signWith(secret)
+                .compact();
+    }
+
+    /**
+     * Verifies the signature and expiration of the token once and returns its claims.
+     * Verified and rejected tokens are remembered by SHA-256 digest, so repeated
+     * calls with the same token neither re-verify the HMAC nor throw.
+     */
+    public Optional<Claims> verify(String token) {
+        if (!isWellFormed(token)) {
+            return Optional.empty();
+        }
+        String key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            return isExpired(claims) ? Optional.empty() : Optional.of(claims);
+        }
+        if (rejectedTokens.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
         try {
-            Jws<Claims> claimsJws =Jwts.parserBuilder()
-                    .setSigningKey(secret)
-                    .build()
-                    .parseClaimsJws(token);
-            return !claimsJws.getBody().getExpiration().before(new Date());
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            throw new JwtException("Expired or invalid JWT token");
+            rejectedTokens.put(key, Boolean.TRUE);
+            return Optional.empty();
         }
+        verifiedClaims.put(key, claims);
+        return Optional.of(claims);
     }
 
-    public String getUsername(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+    private boolean isWellFormed(String token) {
+        int separators = 0;
+        char previous = '.';
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (previous == '.') {
+                    return false;
+                }
+                separators++;
+            } else if (!isBase64UrlChar(c)) {
+                return false;
+            }
+            previous = c;
+        }
+        return separators == 2 && previous != '.';
     }
 
-    private <T> T getClaimFromToken(java.lang.String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+    private boolean isBase64UrlChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_';
+    }
+
+    private boolean isExpired(Claims claims) {
+        Date expirationDate = claims.getExpiration();
+        return expirationDate != null && expirationDate.getTime() <= System.currentTimeMillis();
+    }
+
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ExpireAtTokenExpiration implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expirationDate = claims.getExpiration();
+            if (expirationDate == null) {
+                return Long.MAX_VALUE;
+            }
+            long millisLeft = expirationDate.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
     }
 }
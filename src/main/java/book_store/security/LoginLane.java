@@ -0,0 +1,74 @@
+package book_store.security;
+
+import book_store.exception.LoginLaneSaturatedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Component
+public class LoginLane {
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admissions;
+    private final Counter rejected;
+
+    public LoginLane(
+            @Value("${security.login-lane.threads:2}") int threads,
+            @Value("${security.login-lane.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new LoginThreadFactory());
+        admissions = new Semaphore(threads + queueCapacity);
+        rejected = Counter.builder("login.lane.rejected")
+                .description("Logins rejected because the login lane was saturated")
+                .register(meterRegistry);
+        Gauge.builder("login.lane.queue.depth", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("login.lane.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Logins currently hashing a password")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!admissions.tryAcquire()) {
+            rejected.increment();
+            throw new LoginLaneSaturatedException("Too many concurrent logins, try again later");
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor)
+                    .whenComplete((result, ex) -> admissions.release());
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            rejected.increment();
+            throw new LoginLaneSaturatedException("Too many concurrent logins, try again later");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class LoginThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "login-lane-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
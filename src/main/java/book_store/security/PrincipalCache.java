@@ -0,0 +1,44 @@
+package book_store.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Principals of access tokens, keyed by subject, for {@code security.principal-cache.ttl}.
+ * Nothing in the application changes a user's roles or locks an account, so entries
+ * are not invalidated on writes: a change made directly in the database reaches
+ * requests once the entry expires, or earlier through {@link #invalidate}. With
+ * {@code security.principal-from-claims} the principal comes from the token itself
+ * (id, email and roles only) and stays as issued until the token expires
+ * ({@code jwt.expiration}).
+ */
+@Component
+public class PrincipalCache {
+    private final Cache<String, UserDetails> principals;
+
+    public PrincipalCache(
+            @Value("${security.principal-cache.ttl:60000}") long ttl,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return principals.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        principals.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+}
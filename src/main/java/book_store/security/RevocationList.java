@@ -0,0 +1,88 @@
+package book_store.security;
+
+import book_store.repository.token.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the revoked_tokens table. Lookups consult a bloom filter first,
+ * so the common case of a token that was never revoked touches neither the exact
+ * set nor the database. The view is rebuilt from the table on startup and
+ * periodically, which also picks up revocations made by other instances.
+ */
+@Component
+public class RevocationList {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private volatile Snapshot snapshot;
+
+    public RevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${security.revocation.expected-size:10000}") int expectedRevocations,
+            @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        snapshot = newSnapshot(List.of());
+    }
+
+    public boolean isRevoked(String jti) {
+        Snapshot current = snapshot;
+        return current.filter().mightContain(jti) && current.jtis().contains(jti);
+    }
+
+    /**
+     * Revokes the token, returning {@code false} when it was revoked already. The
+     * snapshot only answers for revocations it has seen; the database decides the
+     * rest, so a refresh token used on two instances at once is accepted by one.
+     */
+    public synchronized boolean revoke(String jti, Date expiresAt) {
+        if (isRevoked(jti)) {
+            return false;
+        }
+        boolean revoked;
+        try {
+            revokedTokenRepository.insert(jti, LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+            revoked = true;
+        } catch (DataIntegrityViolationException e) {
+            revoked = false;
+        }
+        snapshot.jtis().add(jti);
+        snapshot.filter().put(jti);
+        return revoked;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${security.revocation.refresh-interval:60000}",
+            fixedDelayString = "${security.revocation.refresh-interval:60000}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        snapshot = newSnapshot(revokedTokenRepository.findActiveJtis(now));
+    }
+
+    private Snapshot newSnapshot(List<String> jtis) {
+        BloomFilter filter = new BloomFilter(
+                Math.max(expectedRevocations, jtis.size() * 2), falsePositiveRate);
+        Set<String> exact = ConcurrentHashMap.newKeySet(jtis.size());
+        for (String jti : jtis) {
+            filter.put(jti);
+            exact.add(jti);
+        }
+        return new Snapshot(filter, exact);
+    }
+
+    private record Snapshot(BloomFilter filter, Set<String> jtis) {
+    }
+}
@@ -0,0 +1,9 @@
+package book_store.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BookExportService {
+    /** Writes every book as one NDJSON line, ordered by id, and returns the number written. */
+    long exportBooks(OutputStream output) throws IOException;
+}
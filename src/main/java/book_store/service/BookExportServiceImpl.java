@@ -0,0 +1,101 @@
+package book_store.service;
+
+import book_store.dto.BookDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.HashSet;
+
+/**
+ * Streams the catalog from a forward-only cursor in a stateless session: rows are
+ * turned into JSON as they arrive and nothing is kept in a persistence context, so
+ * heap use does not depend on the number of books. The export runs in a single
+ * read-only transaction and sees one consistent snapshot.
+ */
+@Service
+public class BookExportServiceImpl implements BookExportService {
+    private static final String QUERY = "select b.id, b.title, b.author, b.isbn, b.price, b.description,"
+            + " b.coverImage, c.id from Book b left join b.categories c order by b.id";
+
+    private final SessionFactory sessionFactory;
+    private final ObjectWriter writer;
+    private final int fetchSize;
+
+    public BookExportServiceImpl(
+            EntityManagerFactory entityManagerFactory,
+            ObjectMapper objectMapper,
+            @Value("${book.export.fetch-size:1000}") int fetchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.writer = objectMapper.writerFor(BookDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long exportBooks(OutputStream output) throws IOException {
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+                JsonGenerator generator = writer.createGenerator(output)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> rows = session.createSelectionQuery(QUERY, Object[].class)
+                    .setReadOnly(true)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                return write(rows, generator);
+            } finally {
+                transaction.rollback();
+            }
+        }
+    }
+
+    /** Rows come one per book and category, ordered by book id. */
+    private long write(ScrollableResults<Object[]> rows, JsonGenerator generator) throws IOException {
+        long count = 0;
+        BookDto current = null;
+        while (rows.next()) {
+            Object[] row = rows.get();
+            Long id = (Long) row[0];
+            if (current == null || !current.getId().equals(id)) {
+                if (current != null) {
+                    writeLine(current, generator);
+                    count++;
+                }
+                current = new BookDto()
+                        .setId(id)
+                        .setTitle((String) row[1])
+                        .setAuthor((String) row[2])
+                        .setIsbn((String) row[3])
+                        .setPrice((BigDecimal) row[4])
+                        .setDescription((String) row[5])
+                        .setCoverImage((String) row[6])
+                        .setCategoryIds(new HashSet<>());
+            }
+            if (row[7] != null) {
+                current.getCategoryIds().add((Long) row[7]);
+            }
+        }
+        if (current != null) {
+            writeLine(current, generator);
+            count++;
+        }
+        return count;
+    }
+
+    private void writeLine(BookDto book, JsonGenerator generator) throws IOException {
+        writer.writeValue(generator, book);
+        generator.writeRaw('\n');
+    }
+}
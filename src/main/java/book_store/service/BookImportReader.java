@@ -0,0 +1,160 @@
+package book_store.service;
+
+import book_store.dto.CreateBookRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads bulk import rows one line at a time, so memory does not depend on the size
+ * of the input. NDJSON lines hold a {@link CreateBookRequestDto}; CSV starts with a
+ * header naming the columns (title, author, isbn, price, description, coverImage,
+ * categoryIds), category ids are separated by {@code ;} and quoted fields may not
+ * span lines.
+ */
+final class BookImportReader {
+    private static final String CATEGORY_SEPARATOR = ";";
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long line;
+
+    private BookImportReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(reader);
+        this.objectMapper = objectMapper;
+    }
+
+    static BookImportReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new BookImportReader(reader, objectMapper);
+    }
+
+    static BookImportReader csv(Reader reader) throws IOException {
+        BookImportReader importReader = new BookImportReader(reader, null);
+        importReader.readHeader();
+        return importReader;
+    }
+
+    /** The next non-blank row, or {@code null} at the end of the input. */
+    Row next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+        try {
+            return new Row(line, columns == null ? parseJson(text) : parseCsv(text), null);
+        } catch (IllegalArgumentException e) {
+            return new Row(line, null, e.getMessage());
+        }
+    }
+
+    private CreateBookRequestDto parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, CreateBookRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private CreateBookRequestDto parseCsv(String text) {
+        List<String> fields = split(text);
+        CreateBookRequestDto book = new CreateBookRequestDto()
+                .setTitle(field(fields, "title"))
+                .setAuthor(field(fields, "author"))
+                .setIsbn(field(fields, "isbn"))
+                .setDescription(field(fields, "description"))
+                .setCoverImage(field(fields, "coverimage"));
+        String price = field(fields, "price");
+        if (price != null) {
+            try {
+                book.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price " + price);
+            }
+        }
+        String categoryIds = field(fields, "categoryids");
+        if (categoryIds != null) {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (String id : categoryIds.split(CATEGORY_SEPARATOR)) {
+                if (!id.isBlank()) {
+                    try {
+                        ids.add(Long.parseLong(id.trim()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid category id " + id);
+                    }
+                }
+            }
+            book.setCategoryIds(ids);
+        }
+        return book;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        line++;
+        columns = new HashMap<>();
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    private static List<String> split(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    record Row(long line, CreateBookRequestDto book, String error) {
+    }
+}
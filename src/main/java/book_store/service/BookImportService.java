@@ -0,0 +1,15 @@
+package book_store.service;
+
+import book_store.dto.book.BookImportEvent;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface BookImportService {
+    void importBooks(Reader input, Format format, Consumer<BookImportEvent> events) throws IOException;
+
+    enum Format {
+        NDJSON,
+        CSV
+    }
+}
@@ -0,0 +1,188 @@
+package book_store.service;
+
+import book_store.dto.CreateBookRequestDto;
+import book_store.dto.book.BookImportEvent;
+import book_store.mapper.BookMapper;
+import book_store.model.Book;
+import book_store.model.Category;
+import book_store.repository.book.BookRepository;
+import book_store.repository.category.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports books in batches of {@code book.import.batch-size}, one transaction per
+ * batch. Ids come from the pooled book id generator, so Hibernate sends each batch
+ * as JDBC batched inserts, and the persistence context is cleared after every
+ * batch. Invalid rows are reported and skipped; they never fail the import.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final List<BookWriteListener> bookWriteListeners;
+    private final ChangeSequence changeSequence;
+    private final int batchSize;
+
+    public BookImportServiceImpl(
+            BookRepository bookRepository,
+            CategoryRepository categoryRepository,
+            BookMapper bookMapper,
+            Validator validator,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            List<BookWriteListener> bookWriteListeners,
+            ChangeSequence changeSequence,
+            @Value("${book.import.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.bookMapper = bookMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.bookWriteListeners = bookWriteListeners;
+        this.changeSequence = changeSequence;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void importBooks(Reader input, Format format, Consumer<BookImportEvent> events) throws IOException {
+        BookImportReader reader;
+        try {
+            reader = format == Format.CSV
+                    ? BookImportReader.csv(input)
+                    : BookImportReader.ndjson(input, objectMapper);
+        } catch (IllegalArgumentException e) {
+            events.accept(BookImportEvent.error(1, e.getMessage()));
+            events.accept(BookImportEvent.done(0, 0, 0));
+            return;
+        }
+        Progress progress = new Progress();
+        Set<Long> categoryIds = categoryRepository.findAllIds();
+        List<BookImportReader.Row> batch = new ArrayList<>(batchSize);
+        BookImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            progress.processed++;
+            String error = row.error() != null ? row.error() : validate(row.book(), categoryIds);
+            if (error != null) {
+                progress.failed++;
+                events.accept(BookImportEvent.error(row.line(), error));
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                write(batch, progress, events);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, progress, events);
+        }
+        events.accept(BookImportEvent.done(progress.processed, progress.imported, progress.failed));
+    }
+
+    private String validate(CreateBookRequestDto book, Set<Long> categoryIds) {
+        Set<ConstraintViolation<CreateBookRequestDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (book.getCategoryIds() != null) {
+            for (Long categoryId : book.getCategoryIds()) {
+                if (!categoryIds.contains(categoryId)) {
+                    return "Unknown category id " + categoryId;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void write(List<BookImportReader.Row> rows, Progress progress, Consumer<BookImportEvent> events) {
+        Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(
+                rows.stream().map(row -> row.book().getIsbn()).toList()));
+        List<BookImportReader.Row> accepted = new ArrayList<>(rows.size());
+        for (BookImportReader.Row row : rows) {
+            if (existing.add(row.book().getIsbn())) {
+                accepted.add(row);
+            } else {
+                progress.failed++;
+                events.accept(BookImportEvent.error(row.line(),
+                        "Book with isbn " + row.book().getIsbn() + " already exists"));
+            }
+        }
+        List<Book> books;
+        try {
+            books = transactionTemplate.execute(status -> persist(accepted));
+        } catch (DataAccessException | PersistenceException e) {
+            progress.failed += accepted.size();
+            String message = "Batch rejected: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            accepted.forEach(row -> events.accept(BookImportEvent.error(row.line(), message)));
+            events.accept(BookImportEvent.progress(progress.processed, progress.imported, progress.failed));
+            return;
+        }
+        progress.imported += books.size();
+        for (Book book : books) {
+            bookWriteListeners.forEach(listener -> listener.bookSaved(book));
+        }
+        events.accept(BookImportEvent.progress(progress.processed, progress.imported, progress.failed));
+    }
+
+    private List<Book> persist(List<BookImportReader.Row> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        session.setCacheMode(CacheMode.IGNORE);
+        List<Book> books = new ArrayList<>(rows.size());
+        for (BookImportReader.Row row : rows) {
+            Book book = bookMapper.toModel(row.book());
+            if (row.book().getCategoryIds() != null) {
+                book.setCategories(row.book().getCategoryIds().stream()
+                        .map(id -> entityManager.getReference(Category.class, id))
+                        .collect(Collectors.toSet()));
+            }
+            books.add(book);
+        }
+        // one sequence number per batch: rows commit together and the feed orders them by id.
+        // Stamped before persist, as a change after it would cost every row an extra update
+        long changeSeq = changeSequence.next();
+        for (Book book : books) {
+            book.setChangeSeq(changeSeq);
+            entityManager.persist(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return books;
+    }
+
+    private static class Progress {
+        private long processed;
+        private long imported;
+        private long failed;
+    }
+}
@@ -0,0 +1,74 @@
+package book_store.service;
+
+import book_store.dto.BookDto;
+import book_store.model.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Serialized {@link BookDto} JSON per book id, bounded by
+ * {@code book.response-cache.max-bytes}. Entries are tagged with the version the
+ * caller read before loading the book, so a fill that raced a write is never
+ * served for the newer version; writes also drop the entry to free the bytes.
+ */
+@Component
+public class BookResponseCache implements BookWriteListener {
+    private final Cache<Long, Response> responses;
+    private final ObjectWriter writer;
+
+    public BookResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${book.response-cache.max-bytes:67108864}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        writer = objectMapper.writerFor(BookDto.class);
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Response response) -> response.json().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "book.responses");
+    }
+
+    /**
+     * The JSON of the book at {@code version}, loading and serializing it on a miss.
+     * Without a version the result is not cached.
+     */
+    public byte[] get(Long id, String version, Supplier<BookDto> loader) {
+        Response cached = responses.getIfPresent(id);
+        if (cached != null && cached.version().equals(version)) {
+            return cached.json();
+        }
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (version != null) {
+            responses.put(id, new Response(version, json));
+        }
+        return json;
+    }
+
+    @Override
+    public void bookSaved(Book book) {
+        responses.invalidate(book.getId());
+    }
+
+    @Override
+    public void bookDeleted(Book book) {
+        responses.invalidate(book.getId());
+    }
+
+    private record Response(String version, byte[] json) {
+    }
+}
@@ -1,9 +1,14 @@
 package book_store.service;
 
 import book_store.dto.BookDto;
+import book_store.dto.CursorPage;
+import book_store.dto.book.BookBatchDto;
+import book_store.dto.book.BookChangeDto;
+import book_store.dto.book.BookFilterParameters;
 import book_store.dto.book.BookSearchParameters;
 import book_store.dto.CreateBookRequestDto;
 import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.dto.category.CategoryFacetDto;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
 
@@ -12,13 +17,30 @@ public interface BookService {
 
     BookDto findById(Long id);
 
+    Long findIdByIsbn(String isbn);
+
     List<BookDto> findAll(Pageable pageable);
 
-    BookDto updateById(CreateBookRequestDto requestDto, Long id);
+    BookBatchDto findAllByIds(List<Long> ids);
+
+    CursorPage<BookDto> findAllAfter(String after, int size);
+
+    CursorPage<BookChangeDto> findChangesAfter(String since, int size);
+
+    /** Updates the book; with {@code expectedChangeSeq} only if it still has that change_seq. */
+    BookDto updateById(CreateBookRequestDto requestDto, Long id, Long expectedChangeSeq);
 
     void deleteById(Long id);
 
     List<BookDto> search(BookSearchParameters params);
 
-    List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long categoryId);
+    List<BookDto> searchFullText(String query, Pageable pageable);
+
+    List<String> suggest(String prefix, int limit);
+
+    List<BookDto> filter(BookFilterParameters params, Pageable pageable);
+
+    List<CategoryFacetDto> facets(BookFilterParameters params);
+
+    List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long categoryId, Pageable pageable);
 }
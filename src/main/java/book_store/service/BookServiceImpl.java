@@ -1,31 +1,68 @@
 package book_store.service;
 
 import book_store.dto.BookDto;
+import book_store.dto.CursorPage;
+import book_store.dto.book.BookBatchDto;
+import book_store.dto.book.BookChangeDto;
+import book_store.dto.book.BookFilterParameters;
 import book_store.dto.book.BookSearchParameters;
 import book_store.dto.CreateBookRequestDto;
 import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.dto.category.CategoryFacetDto;
 import book_store.exception.EntityNotFoundException;
+import book_store.exception.PreconditionFailedException;
 import book_store.mapper.BookMapper;
 import book_store.model.Category;
+import book_store.repository.EntityChange;
+import book_store.repository.TwoPhasePaging;
 import book_store.repository.book.BookRepository;
 import book_store.repository.book.BookSpecificationBuilder;
+import book_store.search.BookSearchIndex;
+import book_store.search.BookSuggester;
+import book_store.search.CategoryBitmapIndex;
+import book_store.search.IsbnIndex;
+import book_store.search.SearchHit;
+import book_store.search.SearchResult;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import book_store.model.Book;
 import org.springframework.data.domain.Pageable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService{
+    private static final String MATCH_ANY = "any";
+    private static final String FIND_BY_ID = "book.findById";
+    private static final String BOOKS_BY_CATEGORY = "book.getBooksByCategoryId";
+    // with in_clause_parameter_padding every chunk is one of a few statement shapes
+    private static final int MULTI_GET_CHUNK_SIZE = 128;
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder bookSpecificationBuilder;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggester bookSuggester;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final List<BookWriteListener> bookWriteListeners;
+    private final ChangeSequence changeSequence;
+    private final RequestCoalescer requestCoalescer;
+    private final IsbnIndex isbnIndex;
 
     @Override
+    @Transactional
     public BookDto save(CreateBookRequestDto requestDto) {
         Book book = bookMapper.toModel(requestDto);
         Set<Long> categoryIds = requestDto.getCategoryIds();
@@ -39,52 +76,175 @@ public class BookServiceImpl implements BookService{
                     .collect(Collectors.toSet());
             book.setCategories(categories);
         }
-        return bookMapper.toDto(bookRepository.save(book));
+        book.setChangeSeq(changeSequence.next());
+        Book savedBook = bookRepository.save(book);
+        AfterCommit.run(() -> bookWriteListeners.forEach(listener -> listener.bookSaved(savedBook)));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
     public BookDto findById(Long id) {
-        Book book = bookRepository.findById(id).orElseThrow(
-                ()-> new EntityNotFoundException("Can`t find book by id" + id)
-        );
-        return bookMapper.toDto(book);
+        return requestCoalescer.load(FIND_BY_ID, id, () -> {
+            Book book = bookRepository.findById(id).orElseThrow(
+                    ()-> new EntityNotFoundException("Can`t find book by id" + id)
+            );
+            return bookMapper.toDto(book);
+        });
+    }
+
+    @Override
+    public Long findIdByIsbn(String isbn) {
+        long id = isbnIndex.find(isbn);
+        if (id < 0) {
+            throw new EntityNotFoundException("Can`t find book by isbn " + isbn);
+        }
+        return id;
     }
 
     @Override
     public List<BookDto> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable).stream()
-                .map(bookMapper::toDto)
+        return bookRepository.findAllDtos(pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookBatchDto findAllByIds(List<Long> ids) {
+        List<Long> requested = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, BookDto> found = new HashMap<>();
+        for (int from = 0; from < requested.size(); from += MULTI_GET_CHUNK_SIZE) {
+            List<Long> chunk = requested.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, requested.size()));
+            bookRepository.findDtosByIdIn(chunk).forEach(book -> found.put(book.getId(), book));
+        }
+        List<BookDto> books = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            BookDto book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BookBatchDto(books, missingIds);
+    }
+
+    @Override
+    public CursorPage<BookDto> findAllAfter(String after, int size) {
+        long afterId = after.isEmpty() ? 0 : CursorCodec.parseLong(CursorCodec.decode(after, 1)[0]);
+        List<Long> ids = bookRepository.findIdsAfter(afterId, Limit.of(size + 1));
+        List<Long> pageIds = ids.subList(0, Math.min(size, ids.size()));
+        List<BookDto> books = TwoPhasePaging.fetch(pageIds, bookRepository::findDtosByIdIn, BookDto::getId);
+        String next = ids.size() > size ? CursorCodec.encode(pageIds.get(pageIds.size() - 1)) : null;
+        return new CursorPage<>(books, next);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookChangeDto> findChangesAfter(String since, int size) {
+        long[] position = CursorCodec.decodeChangePosition(since);
+        List<EntityChange> changes = bookRepository.findChangesAfter(position[0], position[1], size);
+        List<Long> liveIds = changes.stream()
+                .filter(change -> !change.getDeleted())
+                .map(EntityChange::getId)
+                .toList();
+        Map<Long, BookDto> books = liveIds.isEmpty() ? Map.of() : bookRepository.findDtosByIdIn(liveIds).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        List<BookChangeDto> items = changes.stream()
+                .map(change -> {
+                    BookDto book = books.get(change.getId());
+                    return new BookChangeDto(change.getId(), change.getChangeSeq(), change.getUpdatedAt(),
+                            book == null, book);
+                })
                 .toList();
+        return new CursorPage<>(items, CursorCodec.encodeChangePosition(changes, position));
     }
 
     @Override
-    public BookDto updateById(CreateBookRequestDto requestDto, Long id) {
+    @Transactional
+    public BookDto updateById(CreateBookRequestDto requestDto, Long id, Long expectedChangeSeq) {
+        if (expectedChangeSeq != null
+                && !bookRepository.findChangeSeqByIdForUpdate(id).map(expectedChangeSeq::equals).orElse(false)) {
+            throw new PreconditionFailedException("Book " + id + " was changed by someone else");
+        }
         Book bookToUpdate = bookMapper.toModel(requestDto);
         bookToUpdate.setId(id);
         Book updatedBook = bookRepository.save(bookToUpdate);
+        // stamped on the merged copy, after its read: still a single update at commit
+        updatedBook.setChangeSeq(changeSequence.next());
+        AfterCommit.run(() -> bookWriteListeners.forEach(listener -> listener.bookSaved(updatedBook)));
         return bookMapper.toDto(updatedBook);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        bookRepository.deleteById(id);
+        bookRepository.findById(id).ifPresent(book -> {
+            // stamp first: the soft delete itself is a fixed @SQLDelete statement
+            book.setChangeSeq(changeSequence.next());
+            bookRepository.saveAndFlush(book);
+            bookRepository.delete(book);
+            AfterCommit.run(() -> bookWriteListeners.forEach(listener -> listener.bookDeleted(book)));
+        });
     }
 
     @Override
     public List<BookDto> search(BookSearchParameters params) {
         Specification<Book> bookSpecification = bookSpecificationBuilder.build(params);
-        return bookRepository.findAll(bookSpecification)
-                .stream()
-                .map(bookMapper::toDto)
+        return bookRepository.findDtos(bookSpecification);
+    }
+
+    @Override
+    public List<BookDto> searchFullText(String query, Pageable pageable) {
+        SearchResult result = bookSearchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = result.hits().stream()
+                .map(SearchHit::id)
                 .toList();
+        return TwoPhasePaging.fetch(ids, bookRepository::findDtosByIdIn, BookDto::getId);
     }
 
     @Override
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long categoryId) {
-        Category category = new Category();
-        category.setId(categoryId);
-        return bookRepository.findAllByCategoriesContaining(category).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .collect(Collectors.toList());
+    public List<String> suggest(String prefix, int limit) {
+        return bookSuggester.suggest(prefix, limit);
+    }
+
+    @Override
+    public List<BookDto> filter(BookFilterParameters params, Pageable pageable) {
+        List<Long> ids = CategoryBitmapIndex.page(matchingBooks(params),
+                pageable.getOffset(), pageable.getPageSize());
+        return TwoPhasePaging.fetch(ids, bookRepository::findDtosByIdIn, BookDto::getId);
+    }
+
+    @Override
+    public List<CategoryFacetDto> facets(BookFilterParameters params) {
+        return categoryBitmapIndex.facets(matchingBooks(params)).entrySet().stream()
+                .map(facet -> new CategoryFacetDto(facet.getKey(), facet.getValue()))
+                .sorted(Comparator.comparingInt(CategoryFacetDto::count).reversed()
+                        .thenComparing(CategoryFacetDto::categoryId))
+                .toList();
+    }
+
+    @Override
+    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long categoryId, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        return requestCoalescer.load(BOOKS_BY_CATEGORY, List.of(categoryId, offset, size), () -> {
+            List<Long> ids = categoryBitmapIndex.isLoaded()
+                    ? CategoryBitmapIndex.page(categoryBitmapIndex.filter(List.of(categoryId), false), offset, size)
+                    : bookRepository.findIdsByCategoryId(categoryId, PageRequest.of(pageable.getPageNumber(), size));
+            return TwoPhasePaging.fetch(ids, bookRepository::findDtosWithoutCategoriesByIdIn,
+                    BookDtoWithoutCategoryIds::getId);
+        });
+    }
+
+    private RoaringBitmap matchingBooks(BookFilterParameters params) {
+        List<Long> categoryIds = params.categoryIds() == null ? List.of() : List.of(params.categoryIds());
+        RoaringBitmap books = categoryBitmapIndex.filter(categoryIds, MATCH_ANY.equalsIgnoreCase(params.match()));
+        if (params.q() != null && !params.q().isBlank()) {
+            books.and(bookSearchIndex.matching(params.q()));
+        }
+        return books;
     }
 }
@@ -0,0 +1,9 @@
+package book_store.service;
+
+import book_store.model.Book;
+
+public interface BookWriteListener {
+    void bookSaved(Book book);
+
+    void bookDeleted(Book book);
+}
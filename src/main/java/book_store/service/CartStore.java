@@ -0,0 +1,445 @@
+package book_store.service;
+
+import book_store.dto.cartItemDto.CartItemDto;
+import book_store.dto.shoppingCart.ShoppingCartDto;
+import book_store.model.Book;
+import book_store.model.CartItem;
+import book_store.model.Money;
+import book_store.model.ShoppingCart;
+import book_store.repository.cartItem.CartChanges;
+import book_store.repository.cartItem.CartItemRepository;
+import book_store.repository.shoppingCart.ShoppingCartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind copy of the users' first carts, sharded by user id. Quantity changes
+ * and removals of existing lines only touch memory and are written in batches every
+ * {@code cart.write-behind.flush-interval} milliseconds, on {@link #flush(Long)} and on
+ * shutdown; carts idle for {@code cart.write-behind.idle-timeout} milliseconds are
+ * dropped once written. Writes that create lines go through {@link #writeThrough}.
+ * Book titles and prices are those read when the cart was loaded. Only valid when
+ * a user's requests are all served by this instance.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class CartStore {
+    private final Shard[] shards;
+    private final Map<Long, Long> ownersByCartItem = new ConcurrentHashMap<>();
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleNanos;
+    private final Counter flushedLines;
+
+    public CartStore(
+            ShoppingCartRepository shoppingCartRepository,
+            CartItemRepository cartItemRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.write-behind.shards:16}") int shards,
+            @Value("${cart.write-behind.idle-timeout:1800000}") long idleTimeout,
+            MeterRegistry meterRegistry) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartItemRepository = cartItemRepository;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard();
+        }
+        idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        flushedLines = Counter.builder("cart.store.flushed-lines")
+                .description("Cart lines written by write-behind flushes")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.carts", this, CartStore::size)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+    }
+
+    /** The user's cart, or null when the user has no cart. */
+    public ShoppingCartDto view(Long userId) {
+        return withCart(userId, CachedCart::toDto);
+    }
+
+    /**
+     * Adds copies of a book already in the user's cart; null when the cart has no line
+     * for the book, which has to be added through {@link #writeThrough}.
+     */
+    public ShoppingCartDto add(Long userId, Long bookId, int quantity) {
+        return withCart(userId, cart -> {
+            Line line = cart.lines.get(bookId);
+            if (line == null) {
+                return null;
+            }
+            cart.update(line.withQuantity(line.quantity() + quantity));
+            return cart.toDto();
+        });
+    }
+
+    /** Null when the item is not a line of its owner's first cart. */
+    public ShoppingCartDto setQuantity(Long cartItemId, int quantity) {
+        return withCartItem(cartItemId, (cart, line) -> {
+            cart.update(line.withQuantity(quantity));
+            return cart.toDto();
+        });
+    }
+
+    /** False when the item is not a line of its owner's first cart. */
+    public boolean remove(Long cartItemId) {
+        Boolean removed = withCartItem(cartItemId, (cart, line) -> {
+            cart.remove(line);
+            ownersByCartItem.remove(cartItemId);
+            return true;
+        });
+        return removed != null;
+    }
+
+    /**
+     * Runs a write against the database after the user's pending changes are written
+     * and the user's cart is dropped. Changes arriving meanwhile have to reload the
+     * cart, which waits for the write, so they apply to its result instead of
+     * overwriting it with an older quantity.
+     */
+    public <T> T writeThrough(Long userId, Supplier<T> write) {
+        Shard shard = shard(userId);
+        shard.flushLock.lock();
+        try {
+            do {
+                flush(shard, userId);
+            } while (!drop(shard, userId));
+            return write.get();
+        } finally {
+            shard.flushLock.unlock();
+        }
+    }
+
+    /** Writes the user's pending changes before the cart is read from the database. */
+    public void flush(Long userId) {
+        Shard shard = shard(userId);
+        shard.flushLock.lock();
+        try {
+            flush(shard, userId);
+        } finally {
+            shard.flushLock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${cart.write-behind.flush-interval:1000}",
+            fixedDelayString = "${cart.write-behind.flush-interval:1000}")
+    public void flush() {
+        RuntimeException failure = null;
+        for (Shard shard : shards) {
+            shard.flushLock.lock();
+            try {
+                flush(shard, null);
+                evictIdle(shard);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            } finally {
+                shard.flushLock.unlock();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Nothing retries after shutdown, so changes a failing flush leaves behind are logged. */
+    @PreDestroy
+    public void close() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Final cart flush failed", e);
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    for (CachedCart cart : shard.carts.values()) {
+                        if (!cart.dirty.isEmpty()) {
+                            log.error("Unwritten changes of cart {} (user {}): {}", cart.id, cart.userId, cart.changes());
+                        }
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.carts.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private <T> T withCart(Long userId, Function<CachedCart, T> action) {
+        Shard shard = shard(userId);
+        while (true) {
+            CachedCart cart = cart(shard, userId);
+            if (cart == null) {
+                return null;
+            }
+            shard.lock.lock();
+            try {
+                if (shard.carts.get(userId) == cart) {
+                    cart.lastAccess = System.nanoTime();
+                    return action.apply(cart);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private <T> T withCartItem(Long cartItemId, CartItemAction<T> action) {
+        Long userId = ownersByCartItem.get(cartItemId);
+        if (userId == null) {
+            userId = cartItemRepository.findById(cartItemId)
+                    .map(cartItem -> cartItem.getShoppingCart().getUser().getId())
+                    .orElse(null);
+            if (userId == null) {
+                return null;
+            }
+        }
+        return withCart(userId, cart -> {
+            for (Line line : cart.lines.values()) {
+                if (line.cartItemId().equals(cartItemId)) {
+                    return action.apply(cart, line);
+                }
+            }
+            return null;
+        });
+    }
+
+    private CachedCart cart(Shard shard, Long userId) {
+        shard.lock.lock();
+        try {
+            CachedCart cart = shard.carts.get(userId);
+            if (cart != null) {
+                return cart;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        // Loads hold the flush lock so they cannot interleave with a write through.
+        shard.flushLock.lock();
+        try {
+            shard.lock.lock();
+            try {
+                CachedCart cart = shard.carts.get(userId);
+                if (cart != null) {
+                    return cart;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            ShoppingCart shoppingCart = shoppingCartRepository.findFirstWithItemsByUserIdOrderById(userId)
+                    .orElse(null);
+            if (shoppingCart == null) {
+                return null;
+            }
+            CachedCart cart = new CachedCart(shoppingCart.getId(), userId);
+            for (CartItem cartItem : shoppingCart.getCartItems()) {
+                Book book = cartItem.getBook();
+                cart.lines.put(book.getId(), new Line(cartItem.getId(), book.getId(), book.getTitle(),
+                        Money.of(book.getPrice()), cartItem.getQuantity()));
+                ownersByCartItem.put(cartItem.getId(), userId);
+            }
+            shard.lock.lock();
+            try {
+                shard.carts.put(userId, cart);
+            } finally {
+                shard.lock.unlock();
+            }
+            return cart;
+        } finally {
+            shard.flushLock.unlock();
+        }
+    }
+
+    /** Writes the pending changes of one user, or of every user of the shard when null. */
+    private void flush(Shard shard, Long userId) {
+        Map<Long, CartChanges> changesByCart = new HashMap<>();
+        Map<CachedCart, Set<Long>> written = new HashMap<>();
+        shard.lock.lock();
+        try {
+            for (CachedCart cart : shard.carts.values()) {
+                if ((userId == null || cart.userId.equals(userId)) && !cart.dirty.isEmpty()) {
+                    changesByCart.put(cart.id, cart.changes());
+                    written.put(cart, cart.dirty);
+                    cart.dirty = new HashSet<>();
+                }
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (changesByCart.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> cartItemRepository.applyChanges(changesByCart));
+        } catch (RuntimeException e) {
+            shard.lock.lock();
+            try {
+                written.forEach((cart, bookIds) -> cart.dirty.addAll(bookIds));
+            } finally {
+                shard.lock.unlock();
+            }
+            throw e;
+        }
+        flushedLines.increment(written.values().stream().mapToInt(Set::size).sum());
+    }
+
+    private boolean drop(Shard shard, Long userId) {
+        shard.lock.lock();
+        try {
+            CachedCart cart = shard.carts.get(userId);
+            if (cart == null) {
+                return true;
+            }
+            if (!cart.dirty.isEmpty()) {
+                return false;
+            }
+            shard.carts.remove(userId);
+            forget(cart);
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void evictIdle(Shard shard) {
+        long now = System.nanoTime();
+        shard.lock.lock();
+        try {
+            Iterator<CachedCart> carts = shard.carts.values().iterator();
+            while (carts.hasNext()) {
+                CachedCart cart = carts.next();
+                if (cart.dirty.isEmpty() && now - cart.lastAccess >= idleNanos) {
+                    carts.remove();
+                    forget(cart);
+                }
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void forget(CachedCart cart) {
+        for (Line line : cart.lines.values()) {
+            ownersByCartItem.remove(line.cartItemId(), cart.userId);
+        }
+    }
+
+    private Shard shard(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    private interface CartItemAction<T> {
+        T apply(CachedCart cart, Line line);
+    }
+
+    private static class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock flushLock = new ReentrantLock();
+        final Map<Long, CachedCart> carts = new HashMap<>();
+    }
+
+    /** Guarded by its shard's lock. */
+    private static class CachedCart {
+        final Long id;
+        final Long userId;
+        final Map<Long, Line> lines = new LinkedHashMap<>();
+        Set<Long> dirty = new HashSet<>();
+        long lastAccess = System.nanoTime();
+
+        CachedCart(Long id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        void update(Line line) {
+            lines.put(line.bookId(), line);
+            dirty.add(line.bookId());
+        }
+
+        void remove(Line line) {
+            lines.remove(line.bookId());
+            dirty.add(line.bookId());
+        }
+
+        CartChanges changes() {
+            Map<Long, Integer> quantities = new HashMap<>();
+            Set<Long> removed = new HashSet<>();
+            for (Long bookId : dirty) {
+                Line line = lines.get(bookId);
+                if (line != null) {
+                    quantities.put(bookId, line.quantity());
+                } else {
+                    removed.add(bookId);
+                }
+            }
+            return new CartChanges(Map.of(), quantities, removed);
+        }
+
+        ShoppingCartDto toDto() {
+            ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
+            shoppingCartDto.setId(id);
+            shoppingCartDto.setUserId(userId);
+            shoppingCartDto.setCartItems(lines.values().stream()
+                    .map(Line::toDto)
+                    .collect(Collectors.toSet()));
+            return shoppingCartDto;
+        }
+    }
+
+    private record Line(Long cartItemId, Long bookId, String bookTitle, Money price, int quantity) {
+        Line withQuantity(int quantity) {
+            return new Line(cartItemId, bookId, bookTitle, price, quantity);
+        }
+
+        CartItemDto toDto() {
+            CartItemDto cartItemDto = new CartItemDto();
+            cartItemDto.setId(cartItemId);
+            cartItemDto.setBookId(bookId);
+            cartItemDto.setBookTitle(bookTitle);
+            cartItemDto.setPrice(price);
+            cartItemDto.setQuantity(quantity);
+            return cartItemDto;
+        }
+    }
+}
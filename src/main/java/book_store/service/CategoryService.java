@@ -1,5 +1,7 @@
 package book_store.service;
 
+import book_store.dto.CursorPage;
+import book_store.dto.category.CategoryChangeDto;
 import book_store.dto.category.CategoryDto;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
@@ -9,9 +11,12 @@ public interface CategoryService {
 
     CategoryDto getById(Long id);
 
+    CursorPage<CategoryChangeDto> findChangesAfter(String since, int size);
+
     CategoryDto save(CategoryDto categoryDto);
 
-    CategoryDto update(Long id, CategoryDto categoryDto);
+    /** Updates the category; with {@code expectedChangeSeq} only if it still has that change_seq. */
+    CategoryDto update(Long id, CategoryDto categoryDto, Long expectedChangeSeq);
 
     void deleteById(Long id);
 }
@@ -1,20 +1,38 @@
 package book_store.service;
 
+import book_store.dto.CursorPage;
+import book_store.dto.category.CategoryChangeDto;
 import book_store.dto.category.CategoryDto;
 import book_store.exception.EntityNotFoundException;
+import book_store.exception.PreconditionFailedException;
 import book_store.mapper.CategoryMapper;
+import book_store.model.Book;
 import book_store.model.Category;
+import book_store.repository.EntityChange;
 import book_store.repository.category.CategoryRepository;
+import book_store.search.CatalogVersions;
+import book_store.search.CategoryBitmapIndex;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class CategoryServiceImpl implements CategoryService{
+    private static final String BOOK_CATEGORIES = Book.class.getName() + ".categories";
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeSequence changeSequence;
+    private final CatalogVersions catalogVersions;
 
     @Override
     public List<CategoryDto> findAll(Pageable pageable) {
@@ -32,21 +50,67 @@ public class CategoryServiceImpl implements CategoryService{
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CategoryChangeDto> findChangesAfter(String since, int size) {
+        long[] position = CursorCodec.decodeChangePosition(since);
+        List<EntityChange> changes = categoryRepository.findChangesAfter(position[0], position[1], size);
+        List<Long> liveIds = changes.stream()
+                .filter(change -> !change.getDeleted())
+                .map(EntityChange::getId)
+                .toList();
+        Map<Long, Category> categories = liveIds.isEmpty() ? Map.of() : categoryRepository.findAllById(liveIds)
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        List<CategoryChangeDto> items = changes.stream()
+                .map(change -> {
+                    Category category = categories.get(change.getId());
+                    return new CategoryChangeDto(change.getId(), change.getChangeSeq(), change.getUpdatedAt(),
+                            category == null, category == null ? null : categoryMapper.toDto(category));
+                })
+                .toList();
+        return new CursorPage<>(items, CursorCodec.encodeChangePosition(changes, position));
+    }
+
+    @Override
+    @Transactional
     public CategoryDto save(CategoryDto categoryDto) {
         Category category = categoryMapper.toEntity(categoryDto);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        category.setChangeSeq(changeSequence.next());
+        Category savedCategory = categoryRepository.save(category);
+        AfterCommit.run(() -> catalogVersions.categorySaved(savedCategory));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
-    public CategoryDto update(Long id, CategoryDto categoryDto) {
+    @Transactional
+    public CategoryDto update(Long id, CategoryDto categoryDto, Long expectedChangeSeq) {
+        if (expectedChangeSeq != null
+                && !categoryRepository.findChangeSeqByIdForUpdate(id).map(expectedChangeSeq::equals).orElse(false)) {
+            throw new PreconditionFailedException("Category " + id + " was changed by someone else");
+        }
         Category categoryToUpdate = categoryMapper.toEntity(categoryDto);
         categoryToUpdate.setId(id);
         Category updatedCategory = categoryRepository.save(categoryToUpdate);
+        // stamped on the merged copy, after its read: still a single update at commit
+        updatedCategory.setChangeSeq(changeSequence.next());
+        AfterCommit.run(() -> catalogVersions.categorySaved(updatedCategory));
         return categoryMapper.toDto(updatedCategory);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        categoryRepository.deleteById(id);
+        categoryRepository.findById(id).ifPresent(category -> {
+            // stamp first: the soft delete itself is a fixed @SQLDelete statement
+            category.setChangeSeq(changeSequence.next());
+            categoryRepository.saveAndFlush(category);
+            categoryRepository.delete(category);
+            AfterCommit.run(() -> catalogVersions.categoryDeleted(category));
+        });
+        AfterCommit.run(() -> {
+            // book_category rows survive the soft delete, so cached Book.categories would still list it
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictCollectionData(BOOK_CATEGORIES);
+            categoryBitmapIndex.categoryDeleted(id);
+        });
     }
 }
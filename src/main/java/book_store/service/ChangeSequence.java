@@ -0,0 +1,51 @@
+package book_store.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out the change_seq stamped on written books and categories. The counter row
+ * stays locked until the writing transaction ends, so sequence numbers become
+ * visible in commit order and a reader that has seen {@code n} can never later find
+ * a new row below {@code n}.
+ *
+ * <p>The price is that catalog writes, import batches included, commit one at a
+ * time: each waits from its {@code next()} for the previous writer's commit. Callers
+ * therefore take the number last, after their reads and checks; a conditional update
+ * locks its own row for the check instead. The stamp still has to precede
+ * {@code persist}, since changing a persisted entity adds an update per row, so an
+ * import batch holds the counter for its whole flush and a smaller
+ * {@code book.import.batch-size} shortens the wait of other writes.
+ */
+@RequiredArgsConstructor
+@Component
+public class ChangeSequence {
+    private static final String TABLE = "id_generators";
+    private static final String INCREMENT =
+            "update id_generators set next_val = next_val + 1 where name = 'changes'";
+    private static final String CURRENT = "select next_val from id_generators where name = 'changes'";
+
+    private final EntityManager entityManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next() {
+        // Declaring the table keeps Hibernate from invalidating the whole second-level cache
+        entityManager.createNativeQuery(INCREMENT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TABLE)
+                .executeUpdate();
+        return current();
+    }
+
+    /** The last number handed out; no committed row has a higher one. */
+    public long current() {
+        return ((Number) entityManager.createNativeQuery(CURRENT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TABLE)
+                .getSingleResult()).longValue();
+    }
+}
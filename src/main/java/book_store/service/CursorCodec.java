@@ -0,0 +1,75 @@
+package book_store.service;
+
+import book_store.exception.InvalidCursorException;
+import book_store.repository.EntityChange;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+final class CursorCodec {
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    static String encode(Object... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (Object key : keys) {
+            if (!raw.isEmpty()) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int keyCount) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\" + SEPARATOR, -1);
+            if (keys.length != keyCount) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /** Change feed position as {change_seq, id}; an empty cursor starts before every row. */
+    static long[] decodeChangePosition(String cursor) {
+        if (cursor.isEmpty()) {
+            return new long[] {0, 0};
+        }
+        String[] keys = decode(cursor, 2);
+        return new long[] {parseLong(keys[0]), parseLong(keys[1])};
+    }
+
+    /** Position after the last change, or the unchanged position when there was none. */
+    static String encodeChangePosition(List<EntityChange> changes, long[] position) {
+        if (changes.isEmpty()) {
+            return encode(position[0], position[1]);
+        }
+        EntityChange last = changes.get(changes.size() - 1);
+        return encode(last.getChangeSeq(), last.getId());
+    }
+
+    static long parseLong(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    static LocalDateTime parseDateTime(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
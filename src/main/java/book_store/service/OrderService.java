@@ -1,5 +1,6 @@
 package book_store.service;
 
+import book_store.dto.CursorPage;
 import book_store.dto.order.OrderDto;
 import book_store.dto.order.OrderRequest;
 import book_store.dto.orderItem.OrderItemDto;
@@ -14,6 +15,8 @@ public interface OrderService {
 
     List<OrderDto> findAll(User user, Pageable pageable);
 
+    CursorPage<OrderDto> findAllAfter(User user, String after, int size);
+
     OrderDto updateOrderStatus(Long id, Order.Status status);
 
     List<OrderItemDto> getAllOrderItems(Long orderId);
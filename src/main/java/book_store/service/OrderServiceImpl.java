@@ -1,5 +1,6 @@
 package book_store.service;
 
+import book_store.dto.CursorPage;
 import book_store.dto.order.OrderDto;
 import book_store.dto.order.OrderRequest;
 import book_store.dto.orderItem.OrderItemDto;
@@ -7,15 +8,18 @@ import book_store.exception.EntityNotFoundException;
 import book_store.mapper.OrderItemMapper;
 import book_store.mapper.OrderMapper;
 import book_store.model.*;
+import book_store.repository.TwoPhasePaging;
 import book_store.repository.book.BookRepository;
+import book_store.repository.order.OrderKey;
 import book_store.repository.order.OrderRepository;
 import book_store.repository.shoppingCart.ShoppingCartRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -27,6 +31,7 @@ public class OrderServiceImpl implements OrderService{
     private final ShoppingCartRepository shoppingCartRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    private final ObjectProvider<CartStore> cartStore;
 
     @Transactional
     @Override
@@ -34,7 +39,8 @@ public class OrderServiceImpl implements OrderService{
         Order order = new Order();
         order.setShippingAddress(request.getShippingAddress());
         order.setStatus(Order.Status.PENDING);
-        BigDecimal total = BigDecimal.ZERO;
+        Money total = Money.ZERO;
+        cartStore.ifAvailable(store -> store.flush(user.getId()));
         ShoppingCart shoppingCart = shoppingCartRepository.findByUser(user)
                 .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found for user: " + user.getUsername()));
         Set<OrderItem> orderItems = new HashSet<>();
@@ -43,9 +49,10 @@ public class OrderServiceImpl implements OrderService{
             orderItem.setBook(cartItem.getBook());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setOrder(order);
-            orderItem.setPrice(cartItem.getBook().getPrice());
+            Money price = Money.of(cartItem.getBook().getPrice());
+            orderItem.setPrice(price);
             orderItems.add(orderItem);
-            total = total.add(cartItem.getBook().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+            total = total.plus(price.times(cartItem.getQuantity()));
         }
         order.setTotal(total);
         order.setOrderDate(LocalDateTime.now());
@@ -62,6 +69,28 @@ public class OrderServiceImpl implements OrderService{
         return orderMapper.toDtoList(orders);
     }
 
+    @Override
+    public CursorPage<OrderDto> findAllAfter(User user, String after, int size) {
+        List<OrderKey> keys;
+        if (after.isEmpty()) {
+            keys = orderRepository.findLatestKeysByUser(user, Limit.of(size + 1));
+        } else {
+            String[] cursor = CursorCodec.decode(after, 2);
+            keys = orderRepository.findKeysByUserAfter(user, CursorCodec.parseDateTime(cursor[0]),
+                    CursorCodec.parseLong(cursor[1]), Limit.of(size + 1));
+        }
+        List<OrderKey> pageKeys = keys.subList(0, Math.min(size, keys.size()));
+        List<Order> orders = TwoPhasePaging.fetch(pageKeys.stream().map(OrderKey::getId).toList(),
+                orderRepository::findAllByIdIn, Order::getId);
+        // from the id phase: an order gone before the load must not move the cursor back
+        String next = null;
+        if (keys.size() > size) {
+            OrderKey last = pageKeys.get(pageKeys.size() - 1);
+            next = CursorCodec.encode(last.getOrderDate(), last.getId());
+        }
+        return new CursorPage<>(orderMapper.toDtoList(orders), next);
+    }
+
     @Transactional
     @Override
     public OrderDto updateOrderStatus(Long id, Order.Status status) {
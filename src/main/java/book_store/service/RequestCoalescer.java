@@ -0,0 +1,99 @@
+package book_store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight loads: concurrent callers asking for the same operation and key share
+ * the load of the first caller. A load is shared for at most
+ * {@code catalog.coalescing.timeout} milliseconds; callers that waited that long, and
+ * callers arriving after it, load on their own. Loads must not depend on the caller's
+ * transaction, and the shared result must not be modified.
+ */
+@Component
+public class RequestCoalescer {
+    private static final String METRIC = "catalog.coalescer.calls";
+    private final Map<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long timeoutNanos;
+
+    public RequestCoalescer(
+            @Value("${catalog.coalescing.timeout:5000}") long timeout,
+            MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        Gauge.builder("catalog.coalescer.in-flight", inFlight, Map::size)
+                .description("Distinct catalog loads currently running")
+                .register(meterRegistry);
+    }
+
+    public <T> T load(String operation, Object key, Supplier<T> loader) {
+        Key flightKey = new Key(operation, key);
+        InFlight candidate = new InFlight(new CompletableFuture<>(), System.nanoTime() + timeoutNanos);
+        InFlight flight = inFlight.compute(flightKey,
+                (k, current) -> current == null || current.expired() ? candidate : current);
+        if (flight == candidate) {
+            calls(operation, "loaded").increment();
+            return lead(flightKey, candidate, loader);
+        }
+        long remaining = flight.deadline() - System.nanoTime();
+        try {
+            @SuppressWarnings("unchecked")
+            T result = (T) flight.result().get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            calls(operation, "coalesced").increment();
+            return result;
+        } catch (TimeoutException e) {
+            calls(operation, "timed-out").increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            calls(operation, "coalesced").increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, e);
+        }
+    }
+
+    private <T> T lead(Key key, InFlight flight, Supplier<T> loader) {
+        try {
+            T result = loader.get();
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Counter calls(String operation, String outcome) {
+        return Counter.builder(METRIC)
+                .description("Catalog reads by whether they ran the load, shared another caller's or gave up waiting")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Key(String operation, Object key) {
+    }
+
+    private record InFlight(CompletableFuture<Object> result, long deadline) {
+        boolean expired() {
+            return System.nanoTime() - deadline >= 0;
+        }
+    }
+}
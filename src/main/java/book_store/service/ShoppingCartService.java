@@ -1,16 +1,21 @@
 package book_store.service;
 
 import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationRequest;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.dto.cartItemDto.UpdateCartItemRequest;
 import book_store.model.User;
-import org.springframework.data.domain.Pageable;
+import java.util.List;
 
 public interface ShoppingCartService {
-    ShoppingCartDto findUserShoppingCart(User user, Pageable pageable);
+    /** The user's cart with line and cart totals; an empty cart when the user has none. */
+    ShoppingCartDto findUserShoppingCart(User user);
 
     ShoppingCartDto addBookToCart(AddToCartRequest request, User user);
 
+    /** Applies add, set-quantity and remove operations, in order, in one transaction. */
+    ShoppingCartDto applyOperations(List<CartOperationRequest> operations, User user);
+
     ShoppingCartDto updateCartItemQuantity(Long cartItemId, UpdateCartItemRequest request);
 
     void removeBookFromCart(Long cartItemId);
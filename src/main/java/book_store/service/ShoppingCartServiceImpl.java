@@ -1,23 +1,34 @@
 package book_store.service;
 
+import book_store.dto.cartItemDto.CartItemDto;
 import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationRequest;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.dto.cartItemDto.UpdateCartItemRequest;
 import book_store.exception.EntityNotFoundException;
-import book_store.mapper.BookMapper;
 import book_store.mapper.CartItemMapper;
 import book_store.mapper.ShoppingCartMapper;
 import book_store.model.Book;
 import book_store.model.CartItem;
+import book_store.model.Money;
 import book_store.model.ShoppingCart;
 import book_store.model.User;
+import book_store.repository.book.BookRepository;
+import book_store.repository.cartItem.CartChanges;
 import book_store.repository.cartItem.CartItemRepository;
+import book_store.repository.shoppingCart.CartLineView;
 import book_store.repository.shoppingCart.ShoppingCartRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @Service
@@ -25,39 +36,70 @@ public class ShoppingCartServiceImpl implements ShoppingCartService{
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
     private final ShoppingCartMapper shoppingCartMapper;
-    private final BookMapper bookMapper;
+    private final BookRepository bookRepository;
     private final CartItemMapper cartItemMapper;
 
     @Override
-    public ShoppingCartDto findUserShoppingCart(User user, Pageable pageable) {
-        Page<ShoppingCart> page = shoppingCartRepository.findByUserId(user.getId(), pageable);
-        ShoppingCart shoppingCart = page.getContent().get(0);
-        return shoppingCartMapper.toDto(shoppingCart);
+    public ShoppingCartDto findUserShoppingCart(User user) {
+        ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
+        shoppingCartDto.setUserId(user.getId());
+        Set<CartItemDto> cartItems = new LinkedHashSet<>();
+        for (CartLineView line : shoppingCartRepository.findCartLinesByUserId(user.getId())) {
+            shoppingCartDto.setId(line.getCartId());
+            if (line.getCartItemId() != null && line.getBookId() != null) {
+                CartItemDto cartItemDto = new CartItemDto();
+                cartItemDto.setId(line.getCartItemId());
+                cartItemDto.setBookId(line.getBookId());
+                cartItemDto.setBookTitle(line.getBookTitle());
+                cartItemDto.setPrice(Money.of(line.getPrice()));
+                cartItemDto.setQuantity(line.getQuantity());
+                cartItems.add(cartItemDto);
+            }
+        }
+        shoppingCartDto.setCartItems(cartItems);
+        return shoppingCartDto;
     }
 
+    /**
+     * Runs at READ COMMITTED so that the final read sees a cart that a concurrent first
+     * add created after this transaction's first read.
+     */
     @Override
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ShoppingCartDto addBookToCart(AddToCartRequest request, User user) {
-        Book book = bookMapper.bookFromId(request.getBookId());
-        ShoppingCart shoppingCart = shoppingCartRepository.findByUser(user)
+        if (cartItemRepository.addToUserCart(user.getId(), request.getBookId(), request.getQuantity()) == 0) {
+            if (!bookRepository.existsById(request.getBookId())) {
+                throw new EntityNotFoundException("Book with id " + request.getBookId() + " not found");
+            }
+            shoppingCartRepository.createForUser(user.getId());
+            cartItemRepository.addToUserCart(user.getId(), request.getBookId(), request.getQuantity());
+        }
+        return shoppingCartMapper.toDto(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found for user: " + user.getId())));
+    }
+
+    /** Runs at READ COMMITTED for the same reason as {@link #addBookToCart}. */
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ShoppingCartDto applyOperations(List<CartOperationRequest> operations, User user) {
+        CartChanges changes = netChanges(operations);
+        Set<Long> upsertedBookIds = new HashSet<>(changes.added().keySet());
+        upsertedBookIds.addAll(changes.quantities().keySet());
+        if (!upsertedBookIds.isEmpty()) {
+            upsertedBookIds.removeAll(bookRepository.findExistingIds(upsertedBookIds));
+            if (!upsertedBookIds.isEmpty()) {
+                throw new EntityNotFoundException("Books with ids " + upsertedBookIds + " not found");
+            }
+        }
+        Long shoppingCartId = shoppingCartRepository.findCartIdsByUserId(user.getId(), Limit.of(1)).stream()
+                .findFirst()
                 .orElseGet(() -> {
-                    ShoppingCart newShoppingCart = new ShoppingCart();
-                    newShoppingCart.setUser(user);
-                    return shoppingCartRepository.save(newShoppingCart);
+                    shoppingCartRepository.createForUser(user.getId());
+                    return shoppingCartRepository.findCartIdsByUserId(user.getId(), Limit.of(1)).get(0);
                 });
-        CartItem existingCartItem = cartItemRepository.findByShoppingCartAndBook(shoppingCart, book);
-        if (existingCartItem != null) {
-            existingCartItem.setQuantity(existingCartItem.getQuantity() + request.getQuantity());
-            cartItemRepository.save(existingCartItem);
-        } else {
-            CartItem newCartItem = new CartItem();
-            newCartItem.setShoppingCart(shoppingCart);
-            newCartItem.setBook(book);
-            newCartItem.setQuantity(request.getQuantity());
-            cartItemRepository.save(newCartItem);
-            shoppingCart.getCartItems().add(newCartItem);
-        }
-        return shoppingCartMapper.toDto(shoppingCart);
+        cartItemRepository.applyChanges(shoppingCartId, changes);
+        return shoppingCartMapper.toDto(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found for user: " + user.getId())));
     }
 
     @Transactional
@@ -78,4 +120,36 @@ public class ShoppingCartServiceImpl implements ShoppingCartService{
                 .orElseThrow(() -> new EntityNotFoundException("CartItem with id " + cartItemId + " not found"));
         cartItemRepository.delete(cartItem);
     }
+
+    /** Folds the operations, in order, into at most one change per book. */
+    private static CartChanges netChanges(List<CartOperationRequest> operations) {
+        Map<Long, Integer> added = new LinkedHashMap<>();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Set<Long> removed = new LinkedHashSet<>();
+        for (CartOperationRequest operation : operations) {
+            Long bookId = operation.getBookId();
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (removed.remove(bookId)) {
+                        quantities.put(bookId, operation.getQuantity());
+                    } else if (quantities.containsKey(bookId)) {
+                        quantities.merge(bookId, operation.getQuantity(), Integer::sum);
+                    } else {
+                        added.merge(bookId, operation.getQuantity(), Integer::sum);
+                    }
+                }
+                case SET_QUANTITY -> {
+                    added.remove(bookId);
+                    removed.remove(bookId);
+                    quantities.put(bookId, operation.getQuantity());
+                }
+                case REMOVE -> {
+                    added.remove(bookId);
+                    quantities.remove(bookId);
+                    removed.add(bookId);
+                }
+            }
+        }
+        return new CartChanges(added, quantities, removed);
+    }
 }
@@ -0,0 +1,61 @@
+package book_store.service;
+
+import book_store.dto.cartItemDto.UpdateCartItemRequest;
+import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationRequest;
+import book_store.dto.shoppingCart.ShoppingCartDto;
+import book_store.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+/**
+ * Serves carts from {@link CartStore} when {@code cart.write-behind.enabled} is set,
+ * falling back to {@link ShoppingCartServiceImpl} for writes that create lines.
+ */
+@Primary
+@RequiredArgsConstructor
+@Service
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindShoppingCartService implements ShoppingCartService {
+    private final CartStore cartStore;
+    private final ShoppingCartServiceImpl shoppingCartService;
+
+    @Override
+    public ShoppingCartDto findUserShoppingCart(User user) {
+        ShoppingCartDto shoppingCart = cartStore.view(user.getId());
+        return shoppingCart != null ? shoppingCart : shoppingCartService.findUserShoppingCart(user);
+    }
+
+    @Override
+    public ShoppingCartDto addBookToCart(AddToCartRequest request, User user) {
+        ShoppingCartDto shoppingCart = cartStore.add(user.getId(), request.getBookId(), request.getQuantity());
+        if (shoppingCart != null) {
+            return shoppingCart;
+        }
+        return cartStore.writeThrough(user.getId(), () -> shoppingCartService.addBookToCart(request, user));
+    }
+
+    @Override
+    public ShoppingCartDto applyOperations(List<CartOperationRequest> operations, User user) {
+        return cartStore.writeThrough(user.getId(), () -> shoppingCartService.applyOperations(operations, user));
+    }
+
+    @Override
+    public ShoppingCartDto updateCartItemQuantity(Long cartItemId, UpdateCartItemRequest request) {
+        ShoppingCartDto shoppingCart = cartStore.setQuantity(cartItemId, request.getQuantity());
+        if (shoppingCart != null) {
+            return shoppingCart;
+        }
+        return shoppingCartService.updateCartItemQuantity(cartItemId, request);
+    }
+
+    @Override
+    public void removeBookFromCart(Long cartItemId) {
+        if (!cartStore.remove(cartItemId)) {
+            shoppingCartService.removeBookFromCart(cartItemId);
+        }
+    }
+}
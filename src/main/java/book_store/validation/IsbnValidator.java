@@ -2,13 +2,47 @@ package book_store.validation;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.util.regex.Pattern;
 
+/**
+ * ISBN-13: thirteen digits whose weighted sum (1, 3, 1, 3, ...) is a multiple of 10.
+ * Checked digit by digit, without a regex or any allocation.
+ */
 public class IsbnValidator implements ConstraintValidator<Isbn, String> {
-    private static final String PATTERN_OF_ISBN = "^(?=(?:\\D*\\d){13}\\D*$)\\d{13}$";
+    public static final long INVALID = -1;
+    private static final int LENGTH = 13;
 
     @Override
     public boolean isValid(String isbn, ConstraintValidatorContext constraintValidatorContext) {
-        return isbn != null && Pattern.compile(PATTERN_OF_ISBN).matcher(isbn).matches();
+        return isbn != null && hasValidChecksum(toLong(isbn));
+    }
+
+    /** The thirteen digits as a number, or {@link #INVALID} when the text is not thirteen digits. */
+    public static long toLong(CharSequence isbn) {
+        if (isbn == null || isbn.length() != LENGTH) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = isbn.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public static boolean hasValidChecksum(long isbn) {
+        if (isbn < 0) {
+            return false;
+        }
+        int sum = 0;
+        // from the check digit backwards, so the weights are 1, 3, 1, ... from the right
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = (int) (isbn % 10);
+            sum += (i & 1) == 0 ? digit : digit * 3;
+            isbn /= 10;
+        }
+        return sum % 10 == 0;
     }
 }
@@ -0,0 +1,65 @@
+package book_store.benchmark;
+
+import book_store.model.Role;
+import book_store.model.User;
+import book_store.security.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time spent authenticating one HTTP Basic request, with the default BCrypt
+ * provider and with {@link CachingAuthenticationProvider}. All threads hammer the
+ * same credentials, as a misbehaving integration does. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BasicAuthenticationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BasicAuthenticationBenchmark {
+    private static final String EMAIL = "bob@example.com";
+    private static final String PASSWORD = "password1";
+
+    private AuthenticationProvider bcryptProvider;
+    private AuthenticationProvider cachingProvider;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        Role role = new Role();
+        role.setName(Role.RoleName.ROLE_USER);
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRoles(Set.of(role));
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(username -> user);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        bcryptProvider = daoAuthenticationProvider;
+        cachingProvider = new CachingAuthenticationProvider(
+                daoAuthenticationProvider, Duration.ofSeconds(30), 10000);
+    }
+
+    @Benchmark
+    public Authentication bcryptEveryRequest() {
+        return bcryptProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication cachedCredentials() {
+        return cachingProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD));
+    }
+}
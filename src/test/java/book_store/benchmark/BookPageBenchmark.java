@@ -0,0 +1,88 @@
+package book_store.benchmark;
+
+import book_store.OnlineBookStoreApplication;
+import book_store.dto.BookDto;
+import book_store.mapper.BookMapper;
+import book_store.repository.book.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Latency and allocation of reading one 1,000-book page with its category ids, by
+ * loading {@code Book} entities and mapping them and by selecting straight into
+ * {@link BookDto}. Runs against an in-memory H2 database, so the numbers include
+ * the database's own work on the same thread. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BookPageBenchmark};
+ * allocation per page is the {@code gc.alloc.rate.norm} line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookPageBenchmark {
+    private static final int BOOKS = 10_000;
+    private static final int CATEGORIES = 20;
+    private static final int PAGE_SIZE = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private BookMapper bookMapper;
+    private List<Long> page;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(OnlineBookStoreApplication.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--server.port=0",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        bookRepository = context.getBean(BookRepository.class);
+        bookMapper = context.getBean(BookMapper.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> categories = new ArrayList<>();
+        for (long id = 1; id <= CATEGORIES; id++) {
+            categories.add(new Object[] {id, "Category " + id});
+        }
+        jdbcTemplate.batchUpdate("insert into categories (id, name) values (?, ?)", categories);
+        List<Object[]> books = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        String description = "A long enough description of the book. ".repeat(6);
+        for (long id = 1; id <= BOOKS; id++) {
+            books.add(new Object[] {id, "Title " + id, "Author " + id % 500, "isbn-" + id, 9.99, description,
+                    "https://example.com/covers/" + id + ".jpg"});
+            links.add(new Object[] {id, id % CATEGORIES + 1});
+            links.add(new Object[] {id, (id + CATEGORIES / 2) % CATEGORIES + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into books (id, title, author, isbn, price, description, cover_image)"
+                + " values (?, ?, ?, ?, ?, ?, ?)", books);
+        jdbcTemplate.batchUpdate("insert into book_category (book_id, category_id) values (?, ?)", links);
+        page = LongStream.rangeClosed(4_001, 4_000 + PAGE_SIZE).boxed().toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> entities() {
+        return bookRepository.findAllByIdIn(page).stream()
+                .map(bookMapper::toDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<BookDto> projections() {
+        return bookRepository.findDtosByIdIn(page);
+    }
+}
@@ -0,0 +1,64 @@
+package book_store.benchmark;
+
+import book_store.search.InvertedIndex;
+import book_store.search.SearchResult;
+import org.openjdk.jmh.annotations.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link InvertedIndex} over a million synthetic books whose words
+ * follow a Zipf-like distribution. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=FullTextSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FullTextSearchBenchmark {
+    private static final int BOOKS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_BOOK = 30;
+
+    private InvertedIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new InvertedIndex();
+        StringBuilder text = new StringBuilder();
+        for (int book = 1; book <= BOOKS; book++) {
+            text.setLength(0);
+            for (int word = 0; word < WORDS_PER_BOOK; word++) {
+                text.append('w').append(zipf(random)).append(' ');
+            }
+            index.put(book, text.toString());
+        }
+    }
+
+    @Benchmark
+    public SearchResult rareTerm() {
+        return index.search("w20000", 0, 20);
+    }
+
+    @Benchmark
+    public SearchResult commonAndRare() {
+        return index.search("w1 w500", 0, 20);
+    }
+
+    @Benchmark
+    public SearchResult disjunction() {
+        return index.search("w100 w200 OR w300 w400", 0, 20);
+    }
+
+    @Benchmark
+    public SearchResult commonTerm() {
+        return index.search("w10", 0, 20);
+    }
+
+    private int zipf(Random random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.exp(random.nextDouble() * Math.log(VOCABULARY))));
+    }
+}
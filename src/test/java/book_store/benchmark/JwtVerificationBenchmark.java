@@ -0,0 +1,101 @@
+package book_store.benchmark;
+
+import book_store.model.Role;
+import book_store.model.User;
+import book_store.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former two-parse verification of {@code JwtAuthenticationFilter}
+ * with {@link JwtUtil#verify(String)}. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtVerificationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "mysecretfrommyhometownwhereliveonegoodman";
+
+    private Key key;
+    private JwtUtil jwtUtil;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        jwtUtil = new JwtUtil(SECRET, 10000);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 300000L);
+        Role role = new Role();
+        role.setName(Role.RoleName.ROLE_USER);
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("bob@example.com");
+        user.setRoles(Set.of(role));
+        token = jwtUtil.generateToken(user);
+        tamperedToken = token.substring(0, token.length() - 2) + "AA";
+    }
+
+    @Benchmark
+    public String legacyValidToken() {
+        if (legacyIsValidToken(token)) {
+            return legacyGetUsername(token);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Optional<Claims> verifyValidToken() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public boolean legacyInvalidToken() {
+        try {
+            return legacyIsValidToken(tamperedToken);
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public Optional<Claims> verifyInvalidToken() {
+        return jwtUtil.verify(tamperedToken);
+    }
+
+    private boolean legacyIsValidToken(String jwt) {
+        try {
+            Jws<Claims> claimsJws = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(jwt);
+            return !claimsJws.getBody().getExpiration().before(new Date());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtException("Expired or invalid JWT token");
+        }
+    }
+
+    private String legacyGetUsername(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody()
+                .getSubject();
+    }
+}
@@ -0,0 +1,69 @@
+package book_store.benchmark;
+
+import book_store.model.Money;
+import org.openjdk.jmh.annotations.*;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total of {@code lines} cart lines computed with {@code BigDecimal}, as
+ * {@code OrderServiceImpl} did, with {@link Money} converted from the book price per
+ * line, as it does now, and with {@link Money} prices already in hand, as in the
+ * write-behind cart store. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MoneyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+    @Param({"5", "50"})
+    private int lines;
+
+    private BigDecimal[] prices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(9900), Money.SCALE);
+            moneyPrices[i] = Money.of(prices[i]);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyFromBookPrices() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(Money.of(prices[i]).times(quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money money() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+package book_store.benchmark;
+
+import book_store.search.SuggestionTrie;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link SuggestionTrie} of 100,000 titles of two to five Zipf-distributed
+ * words, and completing a short prefix on it. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SuggestionTrieBenchmark};
+ * the {@code gc.alloc.rate.norm} line of {@code build} divided by {@link #TITLES}
+ * is the allocation per title, an upper bound on the trie's retained heap per entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionTrieBenchmark {
+    private static final int TITLES = 100_000;
+    private static final int VOCABULARY = 20_000;
+
+    private String[] titles;
+    private long[] weights;
+    private SuggestionTrie trie;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        titles = new String[TITLES];
+        weights = new long[TITLES];
+        for (int i = 0; i < TITLES; i++) {
+            StringBuilder title = new StringBuilder();
+            int wordCount = 2 + random.nextInt(4);
+            for (int j = 0; j < wordCount; j++) {
+                title.append(j == 0 ? "" : " ")
+                        .append(words[(int) Math.exp(random.nextDouble() * Math.log(VOCABULARY))]);
+            }
+            titles[i] = title.toString();
+            weights[i] = 1 + random.nextInt(100);
+        }
+        trie = build();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SuggestionTrie build() {
+        SuggestionTrie titleTrie = new SuggestionTrie();
+        for (int i = 0; i < TITLES; i++) {
+            titleTrie.add(titles[i], weights[i]);
+        }
+        return titleTrie;
+    }
+
+    @Benchmark
+    public List<String> complete() {
+        return trie.complete("a", 5);
+    }
+}
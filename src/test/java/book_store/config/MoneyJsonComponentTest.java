@@ -0,0 +1,32 @@
+package book_store.config;
+
+import book_store.model.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyJsonComponentTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+            .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+
+    @Test
+    void serialize_Money_NumberWithTwoDecimals() throws Exception {
+        assertEquals("10.50", objectMapper.writeValueAsString(new Money(1050)));
+        assertEquals("0.00", objectMapper.writeValueAsString(Money.ZERO));
+        assertEquals("-0.05", objectMapper.writeValueAsString(new Money(-5)));
+    }
+
+    @Test
+    void deserialize_Number_ExactMoney() throws Exception {
+        assertEquals(new Money(1050), objectMapper.readValue("10.5", Money.class));
+        assertEquals(new Money(1200), objectMapper.readValue("12", Money.class));
+    }
+
+    @Test
+    void deserialize_ThreeDecimals_InvalidFormatExceptionThrown() {
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("10.505", Money.class));
+    }
+}
@@ -130,7 +130,7 @@ class BookControllerTest {
                 .setAuthor("John Doe")
                 .setTitle("Book Title")
                 .setDescription("Book Description")
-                .setIsbn("9460306332081")
+                .setIsbn("9460306332082")
                 .setPrice(BigDecimal.valueOf(10.99));
 
         String jsonRequest = objectMapper.writeValueAsString(requestDto);
@@ -180,7 +180,7 @@ class BookControllerTest {
                 .setAuthor("New Author")
                 .setTitle("Updated Title")
                 .setDescription("Updated Description")
-                .setIsbn("9460306332081")
+                .setIsbn("9460306332082")
                 .setPrice(BigDecimal.valueOf(15.99));
 
         String jsonRequest = objectMapper.writeValueAsString(updateRequestDto);
@@ -194,7 +194,7 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.author").value("New Author"))
                 .andExpect(jsonPath("$.title").value("Updated Title"))
                 .andExpect(jsonPath("$.description").value("Updated Description"))
-                .andExpect(jsonPath("$.isbn").value("9460306332081"))
+                .andExpect(jsonPath("$.isbn").value("9460306332082"))
                 .andExpect(jsonPath("$.price").value(15.99));
     }
 
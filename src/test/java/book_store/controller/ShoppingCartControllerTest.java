@@ -6,7 +6,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -15,6 +14,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import book_store.dto.shoppingCart.AddToCartRequest;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.dto.cartItemDto.UpdateCartItemRequest;
+import book_store.model.Money;
 import book_store.model.User;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -47,12 +47,13 @@ class ShoppingCartControllerTest {
         User user = new User();
         Authentication authentication = new UsernamePasswordAuthenticationToken(user, null,
                 AuthorityUtils.createAuthorityList("ROLE_USER"));
-        when(shoppingCartService.findUserShoppingCart(eq(user), any(Pageable.class))).thenReturn(mockShoppingCartDto);
+        when(shoppingCartService.findUserShoppingCart(user)).thenReturn(mockShoppingCartDto);
         mockMvc.perform(get("/shoppingCarts").with(authentication(authentication)))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.cartItems.length()").value(2));
+                .andExpect(jsonPath("$.cartItems.length()").value(2))
+                .andExpect(jsonPath("$.total").value(36.5));
     }
 
     @Test
@@ -76,6 +77,33 @@ class ShoppingCartControllerTest {
                 .andExpect(jsonPath("$.cartItems.length()").value(2));
     }
 
+    @Test
+    @DisplayName("Apply several cart operations at once")
+    void applyOperations_ValidRequest_ReturnsUpdatedShoppingCart() throws Exception {
+        ShoppingCartDto mockShoppingCartDto = createMockShoppingCartDto();
+        User user = new User();
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        when(shoppingCartService.applyOperations(any(), eq(user))).thenReturn(mockShoppingCartDto);
+        mockMvc.perform(patch("/shoppingCarts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[{\"type\":\"ADD\",\"bookId\":101,\"quantity\":2},"
+                                + "{\"type\":\"REMOVE\",\"bookId\":103}]}")
+                        .with(authentication(authentication)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.cartItems.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("Cart operations that add nothing are rejected")
+    void applyOperations_MissingQuantity_BadRequest() throws Exception {
+        mockMvc.perform(patch("/shoppingCarts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[{\"type\":\"SET_QUANTITY\",\"bookId\":101}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Update the quantity of goods in the cart")
     void updateCartItemQuantity_ValidRequest_ReturnsUpdatedShoppingCart() throws Exception {
@@ -116,10 +144,12 @@ class ShoppingCartControllerTest {
         CartItemDto item1 = new CartItemDto();
         item1.setId(1L);
         item1.setBookId(101L);
+        item1.setPrice(new Money(1000));
         item1.setQuantity(2);
         CartItemDto item2 = new CartItemDto();
         item2.setId(2L);
         item2.setBookId(102L);
+        item2.setPrice(new Money(550));
         item2.setQuantity(3);
         Set<CartItemDto> cartItems = new HashSet<>();
         cartItems.add(item1);
@@ -0,0 +1,103 @@
+package book_store.model;
+
+import book_store.exception.AmountOutOfRangeException;
+import net.jqwik.api.Assume;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Scale;
+import net.jqwik.api.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private static final BigDecimal COLUMN_MAX = new BigDecimal("999999.99");
+    private static final MoneyConverter CONVERTER = new MoneyConverter();
+
+    @Property(tries = 10000)
+    void of_ColumnValue_SameAsBigDecimal(
+            @ForAll @BigRange(min = "-999999.99", max = "999999.99") @Scale(2) BigDecimal amount) {
+        Money money = Money.of(amount);
+
+        assertEquals(amount.setScale(Money.SCALE), money.toBigDecimal());
+        assertEquals(money, Money.of(money.toBigDecimal()));
+    }
+
+    @Property
+    void of_AnyCents_RoundTrips(@ForAll long cents) {
+        assertEquals(new Money(cents), Money.of(new Money(cents).toBigDecimal()));
+    }
+
+    @Property
+    void of_MoreThanTwoDecimals_ArithmeticExceptionThrown(
+            @ForAll @BigRange(min = "-999999.999", max = "999999.999") @Scale(3) BigDecimal amount) {
+        Assume.that(amount.scale() == 3 && amount.unscaledValue().longValue() % 10 != 0);
+
+        assertThrows(ArithmeticException.class, () -> Money.of(amount));
+    }
+
+    @Property(tries = 10000)
+    void plus_ColumnAmounts_SameAsBigDecimalAndStoredWithinColumn(
+            @ForAll @LongRange(min = -99999999, max = 99999999) long cents,
+            @ForAll @LongRange(min = -99999999, max = 99999999) long otherCents) {
+        BigDecimal expected = BigDecimal.valueOf(cents, Money.SCALE)
+                .add(BigDecimal.valueOf(otherCents, Money.SCALE));
+        Money sum = new Money(cents).plus(new Money(otherCents));
+
+        assertEquals(expected, sum.toBigDecimal());
+        assertStoredOnlyWithinColumn(expected, sum);
+    }
+
+    @Property(tries = 10000)
+    void times_ColumnAmount_SameAsBigDecimalAndStoredWithinColumn(
+            @ForAll @LongRange(min = -99999999, max = 99999999) long cents,
+            @ForAll @IntRange(min = 0, max = 10000) int quantity) {
+        BigDecimal expected = BigDecimal.valueOf(cents, Money.SCALE).multiply(BigDecimal.valueOf(quantity));
+        Money product = new Money(cents).times(quantity);
+
+        assertEquals(expected, product.toBigDecimal());
+        assertStoredOnlyWithinColumn(expected, product);
+    }
+
+    @Example
+    void convertToDatabaseColumn_ColumnBound_StoredUpToMax() {
+        assertEquals(new BigDecimal("999999.99"), CONVERTER.convertToDatabaseColumn(Money.COLUMN_MAX));
+        assertEquals(new BigDecimal("-999999.99"),
+                CONVERTER.convertToDatabaseColumn(new Money(-Money.COLUMN_MAX.cents())));
+        assertThrows(AmountOutOfRangeException.class,
+                () -> CONVERTER.convertToDatabaseColumn(Money.COLUMN_MAX.plus(new Money(1))));
+    }
+
+    @Example
+    void plus_LongOverflow_ArithmeticExceptionThrown() {
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE).plus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE / 2 + 1).times(2));
+    }
+
+    @Property(tries = 10000)
+    void times_OrderLines_TotalSameAsBigDecimal(
+            @ForAll @Size(max = 50) List<@LongRange(min = 0, max = 99999999) Long> prices,
+            @ForAll @IntRange(min = 1, max = 10000) int quantity) {
+        BigDecimal expected = BigDecimal.ZERO;
+        Money total = Money.ZERO;
+        for (Long cents : prices) {
+            BigDecimal price = BigDecimal.valueOf(cents, Money.SCALE);
+            expected = expected.add(price.multiply(BigDecimal.valueOf(quantity)));
+            total = total.plus(Money.of(price).times(quantity));
+        }
+
+        assertEquals(0, expected.compareTo(total.toBigDecimal()));
+    }
+
+    private static void assertStoredOnlyWithinColumn(BigDecimal expected, Money money) {
+        if (expected.abs().compareTo(COLUMN_MAX) <= 0) {
+            assertEquals(expected, CONVERTER.convertToDatabaseColumn(money));
+        } else {
+            assertThrows(AmountOutOfRangeException.class, () -> CONVERTER.convertToDatabaseColumn(money));
+        }
+    }
+}
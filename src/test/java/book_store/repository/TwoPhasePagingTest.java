@@ -0,0 +1,63 @@
+package book_store.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoPhasePagingTest {
+    @Test
+    @DisplayName("Entities are returned in the order of the id page")
+    void fetch_EntitiesLoadedOutOfOrder_IdOrderKept() {
+        Pageable pageable = PageRequest.of(1, 3, Sort.by("title"));
+
+        Page<String> page = TwoPhasePaging.fetch(pageable,
+                p -> new PageImpl<>(List.of(5L, 3L, 9L), p, 10),
+                ids -> List.of("9", "5", "3"),
+                Long::valueOf);
+
+        assertEquals(List.of("5", "3", "9"), page.getContent());
+        assertEquals(10, page.getTotalElements());
+        assertEquals(pageable, page.getPageable());
+    }
+
+    @Test
+    @DisplayName("Id query is sorted by id after the requested sort")
+    void fetch_SortedPage_IdTiebreakerAdded() {
+        AtomicReference<Pageable> idPageable = new AtomicReference<>();
+
+        TwoPhasePaging.<String, Long>fetch(PageRequest.of(0, 2, Sort.by("title")),
+                p -> {
+                    idPageable.set(p);
+                    return new PageImpl<>(List.of(), p, 0);
+                },
+                ids -> List.of(),
+                Long::valueOf);
+
+        assertEquals(Sort.by("title", "id"), idPageable.get().getSort());
+    }
+
+    @Test
+    @DisplayName("Empty id page does not run the entity query")
+    void fetch_NoIds_EntityQuerySkipped() {
+        List<Object> entityQueries = new ArrayList<>();
+
+        Page<String> page = TwoPhasePaging.<String, Long>fetch(PageRequest.of(0, 2),
+                p -> new PageImpl<>(List.of(), p, 0),
+                ids -> {
+                    entityQueries.add(ids);
+                    return List.of();
+                },
+                Long::valueOf);
+
+        assertTrue(page.isEmpty());
+        assertTrue(entityQueries.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.model.Category;
+import book_store.repository.book.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookIndexLoaderTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CategoryBitmapIndex index;
+
+    private BookIndexLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new CategoryBitmapIndex();
+        loader = new BookIndexLoader(bookRepository, List.of(index), eventPublisher);
+        when(bookRepository.findIdsAfter(0L, Limit.of(1000))).thenReturn(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("A write committed after the load read the book wins over the loaded copy")
+    void load_WriteDuringLoad_ReplayedOverLoadedCopy() {
+        Book updated = book(1L, 20L);
+        when(bookRepository.findAllByIdIn(List.of(1L))).thenAnswer(invocation -> {
+            loader.bookSaved(updated);
+            index.bookSaved(updated);
+            return List.of(book(1L, 10L));
+        });
+
+        loader.load();
+
+        assertEquals(RoaringBitmap.bitmapOf(), index.filter(List.of(10L), false));
+        assertEquals(RoaringBitmap.bitmapOf(1), index.filter(List.of(20L), false));
+    }
+
+    @Test
+    @DisplayName("Traffic is refused until the indexes are loaded")
+    void load_ReadinessRefusedThenAccepted() {
+        when(bookRepository.findAllByIdIn(List.of(1L))).thenAnswer(invocation -> {
+            assertFalse(index.isLoaded());
+            return List.of(book(1L, 10L));
+        });
+
+        loader.load();
+
+        ArgumentCaptor<ApplicationEvent> events = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC),
+                events.getAllValues().stream().map(event -> ((AvailabilityChangeEvent<?>) event).getState()).toList());
+        assertTrue(index.isLoaded());
+    }
+
+    @Test
+    @DisplayName("Writes after the load reach the indexes only directly")
+    void bookSaved_AfterLoad_NotRecorded() {
+        when(bookRepository.findAllByIdIn(any())).thenReturn(List.of());
+        loader.load();
+
+        loader.bookSaved(book(1L, 10L));
+
+        assertEquals(RoaringBitmap.bitmapOf(), index.filter(List.of(), false));
+    }
+
+    private static Book book(Long id, Long categoryId) {
+        Book book = new Book();
+        book.setId(id);
+        Category category = new Category();
+        category.setId(categoryId);
+        book.setCategories(Set.of(category));
+        return book;
+    }
+}
@@ -0,0 +1,100 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.model.Category;
+import book_store.repository.category.CategoryRepository;
+import book_store.service.ChangeSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionsTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ChangeSequence changeSequence;
+
+    private CatalogVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        versions = new CatalogVersions(categoryRepository, changeSequence);
+    }
+
+    @Test
+    @DisplayName("Nothing is known before the first load")
+    void versions_BeforeLoad_Unknown() {
+        versions.bookSaved(book(1L, 3L));
+
+        assertNull(versions.bookVersion(1L));
+        assertNull(versions.catalogVersion());
+    }
+
+    @Test
+    @DisplayName("Load starts the list versions at the change counter, which also covers deleted rows")
+    void beforeLoad_CounterAheadOfLiveRows_ListVersionsFromCounter() {
+        when(changeSequence.current()).thenReturn(12L);
+        when(categoryRepository.findAll()).thenReturn(List.of(category(4L, 2L)));
+
+        versions.beforeLoad();
+        versions.bookSaved(book(1L, 5L));
+
+        assertEquals(5L, versions.bookVersion(1L));
+        assertEquals(2L, versions.categoryVersion(4L));
+        assertEquals(12L, versions.categoriesVersion());
+        assertEquals(12L, versions.catalogVersion());
+    }
+
+    @Test
+    @DisplayName("Book writes move the catalog version but not the categories version")
+    void bookSavedAndDeleted_CatalogVersionGrows() {
+        when(changeSequence.current()).thenReturn(1L);
+        versions.beforeLoad();
+
+        versions.bookSaved(book(1L, 5L));
+        versions.bookDeleted(book(1L, 7L));
+
+        assertNull(versions.bookVersion(1L));
+        assertEquals(7L, versions.catalogVersion());
+        assertEquals(1L, versions.categoriesVersion());
+    }
+
+    @Test
+    @DisplayName("A late callback of an older write does not replace a newer version or undo a delete")
+    void callbacksOutOfOrder_NewestVersionKept() {
+        versions.beforeLoad();
+
+        versions.bookSaved(book(1L, 6L));
+        versions.bookSaved(book(1L, 4L));
+        versions.categoryDeleted(category(2L, 9L));
+        versions.categorySaved(category(2L, 8L));
+
+        assertEquals(6L, versions.bookVersion(1L));
+        assertNull(versions.categoryVersion(2L));
+        assertEquals(9L, versions.categoriesVersion());
+        assertEquals(9L, versions.catalogVersion());
+    }
+
+    private static Book book(Long id, long changeSeq) {
+        Book book = new Book();
+        book.setId(id);
+        book.setChangeSeq(changeSeq);
+        return book;
+    }
+
+    private static Category category(Long id, long changeSeq) {
+        Category category = new Category();
+        category.setId(id);
+        category.setChangeSeq(changeSeq);
+        return category;
+    }
+}
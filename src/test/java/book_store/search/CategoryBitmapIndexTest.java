@@ -0,0 +1,107 @@
+package book_store.search;
+
+import book_store.model.Book;
+import book_store.model.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CategoryBitmapIndexTest {
+    private CategoryBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CategoryBitmapIndex();
+        index.bookSaved(book(1L, 10L, 20L));
+        index.bookSaved(book(2L, 10L));
+        index.bookSaved(book(3L, 20L, 30L));
+        index.bookSaved(book(4L));
+    }
+
+    @Test
+    @DisplayName("All categories must match by default, any one of them with 'any'")
+    void filter_AllAndAny_ExpectedBooks() {
+        assertEquals(RoaringBitmap.bitmapOf(1), index.filter(List.of(10L, 20L), false));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), index.filter(List.of(10L, 20L), true));
+        assertEquals(RoaringBitmap.bitmapOf(), index.filter(List.of(10L, 99L), false));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), index.filter(List.of(10L, 99L), true));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 4), index.filter(List.of(), false));
+    }
+
+    @Test
+    @DisplayName("Returned bitmap is a copy that does not change the index")
+    void filter_ResultModified_IndexUnchanged() {
+        index.filter(List.of(10L), false).add(7);
+
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), index.filter(List.of(10L), false));
+    }
+
+    @Test
+    @DisplayName("Facets count books of the filtered set per category")
+    void facets_FilteredBooks_CountsPerCategory() {
+        Map<Long, Integer> facets = index.facets(index.filter(List.of(20L), false));
+
+        assertEquals(Map.of(10L, 1, 20L, 2, 30L, 1), facets);
+    }
+
+    @Test
+    @DisplayName("Updated book moves between categories, deleted book disappears")
+    void bookSavedAndDeleted_MembershipsFollow() {
+        index.bookSaved(book(2L, 30L));
+        index.bookDeleted(book(3L));
+
+        assertEquals(RoaringBitmap.bitmapOf(1), index.filter(List.of(10L), false));
+        assertEquals(RoaringBitmap.bitmapOf(2), index.filter(List.of(30L), false));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 4), index.filter(List.of(), false));
+    }
+
+    @Test
+    @DisplayName("Deleted category is dropped from every book")
+    void categoryDeleted_CategoryNoLongerMatches() {
+        index.categoryDeleted(20L);
+        index.bookSaved(book(1L, 10L));
+
+        assertEquals(RoaringBitmap.bitmapOf(), index.filter(List.of(20L), true));
+        assertEquals(Map.of(10L, 2, 30L, 1), index.facets(index.filter(List.of(), false)));
+    }
+
+    @Test
+    @DisplayName("Page returns ids in ascending order starting at the offset")
+    void page_OffsetAndLimit_ExpectedIds() {
+        RoaringBitmap books = RoaringBitmap.bitmapOf(3, 8, 15, 21, 40);
+
+        assertEquals(List.of(15L, 21L), CategoryBitmapIndex.page(books, 2, 2));
+        assertEquals(List.of(40L), CategoryBitmapIndex.page(books, 4, 2));
+        assertEquals(List.of(), CategoryBitmapIndex.page(books, 5, 2));
+    }
+
+    @Test
+    @DisplayName("Book id beyond the int range is rejected and leaves the index unchanged")
+    void bookSaved_IdBeyondIntRange_IllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> index.bookSaved(book(1L + Integer.MAX_VALUE, 10L)));
+
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), index.filter(List.of(10L), false));
+    }
+
+    private static Book book(Long id, Long... categoryIds) {
+        Book book = new Book();
+        book.setId(id);
+        Set<Category> categories = Arrays.stream(categoryIds)
+                .map(categoryId -> {
+                    Category category = new Category();
+                    category.setId(categoryId);
+                    return category;
+                })
+                .collect(Collectors.toSet());
+        book.setCategories(categories);
+        return book;
+    }
+}
@@ -0,0 +1,88 @@
+package book_store.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+    private InvertedIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new InvertedIndex();
+        index.put(1, "The Hobbit J.R.R. Tolkien A hobbit goes on an adventure");
+        index.put(2, "The Silmarillion J.R.R. Tolkien Tales of the First Age");
+        index.put(3, "Kobzar Taras Shevchenko Poetry");
+    }
+
+    @Test
+    @DisplayName("Terms are matched case-insensitively and ANDed")
+    void search_AllTermsPresent_Matched() {
+        SearchResult result = index.search("tolkien HOBBIT", 0, 10);
+
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(1, result.totalHits());
+    }
+
+    @Test
+    @DisplayName("OR returns documents matching either alternative")
+    void search_Disjunction_BothMatched() {
+        SearchResult result = index.search("hobbit OR kobzar", 0, 10);
+
+        assertEquals(2, result.totalHits());
+        assertTrue(ids(result).containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    @DisplayName("Documents with more occurrences of a term rank higher")
+    void search_HigherTermFrequency_RankedFirst() {
+        index.put(4, "Tolkien a biography");
+
+        SearchResult result = index.search("hobbit OR tolkien", 0, 10);
+
+        assertEquals(1L, ids(result).get(0));
+    }
+
+    @Test
+    @DisplayName("Pages are taken from the ranked hits")
+    void search_Offset_NextHitsReturned() {
+        List<Long> all = ids(index.search("tolkien", 0, 10));
+
+        SearchResult second = index.search("tolkien", 1, 1);
+
+        assertEquals(List.of(all.get(1)), ids(second));
+        assertEquals(2, second.totalHits());
+    }
+
+    @Test
+    @DisplayName("Updated and removed documents are reindexed")
+    void search_AfterUpdateAndRemove_IndexReflectsChanges() {
+        index.put(1, "The Lord of the Rings");
+        index.remove(2);
+
+        assertTrue(index.search("hobbit", 0, 10).hits().isEmpty());
+        assertTrue(index.search("silmarillion", 0, 10).hits().isEmpty());
+        assertEquals(List.of(1L), ids(index.search("rings", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Compaction keeps the surviving documents searchable")
+    void search_AfterCompaction_SurvivorsFound() {
+        for (int i = 100; i < 3100; i++) {
+            index.put(i, "filler " + i);
+        }
+        for (int i = 100; i < 3100; i++) {
+            index.remove(i);
+        }
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(1L), ids(index.search("hobbit", 0, 10)));
+        assertTrue(index.search("filler", 0, 10).hits().isEmpty());
+    }
+
+    private List<Long> ids(SearchResult result) {
+        return result.hits().stream().map(SearchHit::id).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package book_store.search;
+
+import book_store.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IsbnIndexTest {
+    private IsbnIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IsbnIndex();
+        index.bookSaved(book(1L, "9780261103344"));
+        index.bookSaved(book(2L, "9780441013593"));
+    }
+
+    @Test
+    void find_IndexedIsbn_BookIdReturned() {
+        assertEquals(1L, index.find("9780261103344"));
+        assertEquals(2L, index.find("9780441013593"));
+        assertEquals(-1L, index.find("9791032305690"));
+        assertEquals(-1L, index.find("not-an-isbn"));
+    }
+
+    @Test
+    @DisplayName("Changing a book's isbn moves it, deleting it removes it")
+    void bookSavedAndDeleted_IsbnChanged_IndexFollows() {
+        index.bookSaved(book(1L, "9791032305690"));
+        index.bookDeleted(book(2L, "9780441013593"));
+
+        assertEquals(-1L, index.find("9780261103344"));
+        assertEquals(1L, index.find("9791032305690"));
+        assertEquals(-1L, index.find("9780441013593"));
+    }
+
+    @Test
+    @DisplayName("An isbn taken over by another book is kept when the old owner's change arrives late")
+    void bookSaved_IsbnReusedBeforeOwnerMoved_NewOwnerKept() {
+        index.bookSaved(book(3L, "9780261103344"));
+        index.bookSaved(book(1L, "9791032305690"));
+
+        assertEquals(3L, index.find("9780261103344"));
+        assertEquals(1L, index.find("9791032305690"));
+    }
+
+    private static Book book(Long id, String isbn) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(isbn);
+        return book;
+    }
+}
@@ -0,0 +1,52 @@
+package book_store.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putGetRemove_SingleKey_ExpectedValues() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertEquals(LongLongHashMap.NO_VALUE, map.put(9780261103344L, 1));
+        assertEquals(1, map.put(9780261103344L, 2));
+        assertEquals(2, map.get(9780261103344L));
+        assertEquals(2, map.remove(9780261103344L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(9780261103344L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.remove(9780261103344L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void put_ZeroKey_IllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashMap().put(0, 1));
+    }
+
+    @Test
+    @DisplayName("Random puts and removes across resizes agree with a HashMap")
+    void putRemove_RandomOperations_SameAsHashMap() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.remove(key));
+                expected.remove(key);
+            } else {
+                long value = random.nextInt(1_000_000);
+                assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.put(key, value));
+                expected.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.get(key));
+        }
+    }
+}
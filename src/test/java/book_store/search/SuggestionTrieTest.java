@@ -0,0 +1,154 @@
+package book_store.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    public void setup() {
+        trie = new SuggestionTrie();
+        trie.add("The Hobbit", 50);
+        trie.add("The Silmarillion", 10);
+        trie.add("The Hunger Games", 30);
+        trie.add("Taras Shevchenko", 5);
+    }
+
+    @Test
+    @DisplayName("Completions are ordered by weight and ignore case")
+    void complete_Prefix_HeaviestFirst() {
+        assertEquals(List.of("The Hobbit", "The Hunger Games", "The Silmarillion"),
+                trie.complete("the", 10));
+        assertEquals(List.of("The Hobbit", "The Hunger Games"), trie.complete("THE H", 10));
+        assertEquals(List.of("The Hobbit"), trie.complete("t", 1));
+    }
+
+    @Test
+    @DisplayName("Prefix ending inside an edge still matches")
+    void complete_PrefixInsideEdge_Matched() {
+        assertEquals(List.of("The Silmarillion"), trie.complete("the silma", 10));
+        assertTrue(trie.complete("the silmx", 10).isEmpty());
+        assertTrue(trie.complete("x", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Weights of repeated additions add up until every addition is removed")
+    void remove_RepeatedEntry_KeptUntilLastReference() {
+        trie.add("The Silmarillion", 100);
+        assertEquals("The Silmarillion", trie.complete("the", 1).get(0));
+
+        trie.remove("The Silmarillion", 100);
+        assertEquals("The Hobbit", trie.complete("the", 1).get(0));
+
+        trie.remove("The Silmarillion", 10);
+        assertEquals(List.of("The Hobbit", "The Hunger Games"), trie.complete("the", 10));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    @DisplayName("Removing entries merges the remaining path")
+    void remove_AllButOne_RemainingStillFound() {
+        trie.remove("The Hobbit", 50);
+        trie.remove("The Hunger Games", 30);
+
+        assertEquals(List.of("The Silmarillion"), trie.complete("th", 10));
+        assertEquals(List.of("Taras Shevchenko"), trie.complete("ta", 10));
+    }
+
+    @Test
+    @DisplayName("Completions over many titles match a scan of every title")
+    void complete_ManyTitles_SameAsScan() {
+        Random random = new Random(1);
+        String[] words = new String[2000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        List<Long> weights = LongStream.rangeClosed(1, 20_000).boxed().collect(Collectors.toList());
+        Collections.shuffle(weights, random);
+        Map<String, Long> titles = new HashMap<>();
+        SuggestionTrie titleTrie = new SuggestionTrie();
+        for (int i = 0; i < weights.size(); i++) {
+            StringBuilder title = new StringBuilder();
+            int wordCount = 2 + random.nextInt(4);
+            for (int j = 0; j < wordCount; j++) {
+                title.append(words[(int) Math.exp(random.nextDouble() * Math.log(words.length))]).append(' ');
+            }
+            title.append(i);
+            titles.put(title.toString(), weights.get(i));
+            titleTrie.add(title.toString(), weights.get(i));
+        }
+        List<String> prefixes = List.of("a", "e", "q", words[0].substring(0, 2), words[0], words[1] + " ");
+        for (String prefix : prefixes) {
+            assertEquals(scan(titles, prefix), titleTrie.complete(prefix, 5), "prefix " + prefix);
+        }
+
+        List<String> removed = titles.keySet().stream().filter(title -> title.length() % 2 == 0).toList();
+        for (String title : removed) {
+            titleTrie.remove(title, titles.remove(title));
+        }
+
+        assertEquals(titles.size(), titleTrie.size());
+        for (String prefix : prefixes) {
+            assertEquals(scan(titles, prefix), titleTrie.complete(prefix, 5), "prefix " + prefix);
+        }
+    }
+
+    @Test
+    @DisplayName("Retained heap stays within 240 bytes per title and is released on removal")
+    void retainedBytes_ManyTitles_WithinDocumentedBound() {
+        long empty = new SuggestionTrie().retainedBytes();
+        Random random = new Random(1);
+        String[] words = new String[4000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        SuggestionTrie titleTrie = new SuggestionTrie();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder title = new StringBuilder();
+            int wordCount = 2 + random.nextInt(4);
+            for (int j = 0; j < wordCount; j++) {
+                title.append(j == 0 ? "" : " ")
+                        .append(words[(int) Math.exp(random.nextDouble() * Math.log(words.length))]);
+            }
+            titles.add(title.toString());
+            titleTrie.add(title.toString(), 1);
+        }
+
+        assertTrue(titleTrie.retainedBytes() - empty <= 240L * titleTrie.size(),
+                titleTrie.retainedBytes() / titleTrie.size() + " bytes per title");
+
+        titles.forEach(title -> titleTrie.remove(title, 1));
+        assertEquals(empty, titleTrie.retainedBytes());
+    }
+
+    private static List<String> scan(Map<String, Long> titles, String prefix) {
+        return titles.entrySet().stream()
+                .filter(title -> title.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(5)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package book_store.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import java.time.Duration;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("Repeated valid credentials are verified by the delegate once")
+    void authenticate_RepeatedValidCredentials_DelegateCalledOnce() {
+        Authentication authenticated = UsernamePasswordAuthenticationToken
+                .authenticated("bob@example.com", null, List.of());
+        when(delegate.authenticate(any())).thenReturn(authenticated);
+
+        provider.authenticate(credentials("bob@example.com", "password1"));
+        Authentication result = provider.authenticate(credentials("bob@example.com", "password1"));
+
+        assertSame(authenticated, result);
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("Different password is verified by the delegate again")
+    void authenticate_DifferentPassword_DelegateCalledAgain() {
+        Authentication authenticated = UsernamePasswordAuthenticationToken
+                .authenticated("bob@example.com", null, List.of());
+        when(delegate.authenticate(any()))
+                .thenReturn(authenticated)
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(credentials("bob@example.com", "password1"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(credentials("bob@example.com", "password2")));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("Failed credentials are not cached")
+    void authenticate_FailedCredentials_NotCached() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(credentials("bob@example.com", "wrong")));
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(credentials("bob@example.com", "wrong")));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    private Authentication credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
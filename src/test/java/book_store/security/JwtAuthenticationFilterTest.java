@@ -0,0 +1,132 @@
+package book_store.security;
+
+import book_store.model.Role;
+import book_store.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+    private static final String SECRET = "mysecretfrommyhometownwhereliveonegoodman";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private RevocationList revocationList;
+
+    private JwtUtil jwtUtil;
+    private PrincipalCache principalCache;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        jwtUtil = new JwtUtil(SECRET, 100);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 300000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 1209600000L);
+        principalCache = new PrincipalCache(60000, 100);
+        Role role = new Role();
+        role.setName(Role.RoleName.ROLE_USER);
+        user = new User();
+        user.setId(7L);
+        user.setEmail("alice@example.com");
+        user.setRoles(Set.of(role));
+    }
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Repeated requests with the same token load the user once")
+    void doFilter_RepeatedRequests_UserLoadedOnce() throws Exception {
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, revocationList, false);
+        String token = jwtUtil.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(userDetailsService, times(1)).loadUserByUsername(user.getEmail());
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    @DisplayName("Invalidated principal is loaded again")
+    void doFilter_PrincipalInvalidated_UserReloaded() throws Exception {
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, revocationList, false);
+        String token = jwtUtil.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        principalCache.invalidate(user.getEmail());
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(userDetailsService, times(2)).loadUserByUsername(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Principal is built from token claims without a user lookup")
+    void doFilter_PrincipalFromClaims_NoUserLookup() throws Exception {
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, revocationList, true);
+        String token = jwtUtil.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        User principal = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals(user.getEmail(), principal.getUsername());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("Revoked access token does not authenticate")
+    void doFilter_RevokedToken_NotAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(revocationList.isRevoked(anyString())).thenReturn(true);
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, revocationList, false);
+        String token = jwtUtil.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Refresh token is not accepted as an access token")
+    void doFilter_RefreshToken_NotAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, revocationList, false);
+        String token = jwtUtil.generateRefreshToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
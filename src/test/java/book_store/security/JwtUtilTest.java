@@ -0,0 +1,83 @@
+package book_store.security;
+
+import book_store.model.Role;
+import book_store.model.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+    private static final String SECRET = "mysecretfrommyhometownwhereliveonegoodman";
+
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        jwtUtil = new JwtUtil(SECRET, 100);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 300000L);
+        Role role = new Role();
+        role.setName(Role.RoleName.ROLE_USER);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("bob@example.com");
+        user.setRoles(Set.of(role));
+    }
+
+    @Test
+    @DisplayName("Valid token returns the same verified claims on repeated calls")
+    void verify_ValidToken_ClaimsReturnedAndCached() {
+        String token = jwtUtil.generateToken(user);
+
+        Optional<Claims> first = jwtUtil.verify(token);
+        Optional<Claims> second = jwtUtil.verify(token);
+
+        assertTrue(first.isPresent());
+        assertEquals("bob@example.com", first.get().getSubject());
+        assertSame(first.get(), second.get());
+    }
+
+    @Test
+    @DisplayName("Token with a tampered signature is rejected")
+    void verify_TamperedSignature_Rejected() {
+        String token = jwtUtil.generateToken(user);
+        int position = token.length() - 5;
+        char replacement = token.charAt(position) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, position) + replacement + token.substring(position + 1);
+
+        assertTrue(jwtUtil.verify(tampered).isEmpty());
+        assertTrue(jwtUtil.verify(tampered).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Malformed token is rejected")
+    void verify_MalformedToken_Rejected() {
+        assertTrue(jwtUtil.verify("not-a-token").isEmpty());
+        assertTrue(jwtUtil.verify("a..b").isEmpty());
+        assertTrue(jwtUtil.verify("a.b.").isEmpty());
+        assertTrue(jwtUtil.verify("a.b.c d").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Expired token is rejected")
+    void verify_ExpiredToken_Rejected() {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1000L);
+        String token = jwtUtil.generateToken(user);
+
+        assertTrue(jwtUtil.verify(token).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Token signed with another key is rejected")
+    void verify_ForeignKey_Rejected() {
+        JwtUtil foreign = new JwtUtil("anothersecretfromanothertownwithanothergoodman", 100);
+        ReflectionTestUtils.setField(foreign, "expiration", 300000L);
+
+        assertTrue(jwtUtil.verify(foreign.generateToken(user)).isEmpty());
+    }
+}
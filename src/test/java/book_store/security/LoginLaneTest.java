@@ -0,0 +1,65 @@
+package book_store.security;
+
+import book_store.exception.LoginLaneSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginLaneTest {
+    private SimpleMeterRegistry meterRegistry;
+    private LoginLane loginLane;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginLane = new LoginLane(1, 1, meterRegistry);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void teardown() {
+        release.countDown();
+        loginLane.shutdown();
+    }
+
+    @Test
+    @DisplayName("Login beyond threads plus queue capacity is rejected immediately")
+    void submit_LaneSaturated_Rejected() {
+        loginLane.submit(this::blockUntilReleased);
+        loginLane.submit(this::blockUntilReleased);
+
+        assertThrows(LoginLaneSaturatedException.class,
+                () -> loginLane.submit(this::blockUntilReleased));
+        assertEquals(1.0, meterRegistry.get("login.lane.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("login.lane.queue.depth").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Completed logins free their slot")
+    void submit_AfterCompletion_Admitted() throws Exception {
+        CompletableFuture<String> first = loginLane.submit(() -> "first");
+        CompletableFuture<String> second = loginLane.submit(() -> "second");
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<String> third = loginLane.submit(() -> "third");
+
+        assertEquals("third", third.get(5, TimeUnit.SECONDS));
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
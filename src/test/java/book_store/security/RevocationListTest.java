@@ -0,0 +1,72 @@
+package book_store.security;
+
+import book_store.repository.token.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RevocationListTest {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private RevocationList revocationList;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        revocationList = new RevocationList(revokedTokenRepository, 100, 0.01);
+    }
+
+    @Test
+    @DisplayName("Revoked token is reported without querying the repository")
+    void isRevoked_AfterRevoke_TrueWithoutQuery() {
+        assertTrue(revocationList.revoke("jti-1", new Date(System.currentTimeMillis() + 60000)));
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        verify(revokedTokenRepository, times(1)).insert(any(), any());
+        verify(revokedTokenRepository, never()).findActiveJtis(any());
+    }
+
+    @Test
+    @DisplayName("Token revoked twice is only accepted the first time")
+    void revoke_AlreadyRevoked_False() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60000);
+
+        assertTrue(revocationList.revoke("jti-1", expiresAt));
+        assertFalse(revocationList.revoke("jti-1", expiresAt));
+        verify(revokedTokenRepository, times(1)).insert(any(), any());
+    }
+
+    @Test
+    @DisplayName("Token already in the table is reported as revoked before the snapshot knows it")
+    void revoke_RevokedByAnotherInstance_False() {
+        when(revokedTokenRepository.insert(eq("jti-remote"), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'jti-remote'"));
+
+        assertFalse(revocationList.revoke("jti-remote", new Date(System.currentTimeMillis() + 60000)));
+        assertTrue(revocationList.isRevoked("jti-remote"));
+    }
+
+    @Test
+    @DisplayName("Rebuild loads revocations made elsewhere and drops expired ones")
+    void rebuild_LoadsActiveRevocations() {
+        revocationList.revoke("jti-expired", new Date(System.currentTimeMillis() + 60000));
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(List.of("jti-remote"));
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("jti-remote"));
+        assertFalse(revocationList.isRevoked("jti-expired"));
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+}
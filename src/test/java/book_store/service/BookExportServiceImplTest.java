@@ -0,0 +1,86 @@
+package book_store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BookExportServiceImplTest {
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private StatelessSession session;
+
+    @Mock
+    private Transaction transaction;
+
+    @Mock
+    private SelectionQuery<Object[]> query;
+
+    @Mock
+    private ScrollableResults<Object[]> rows;
+
+    private BookExportServiceImpl bookExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(sessionFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(transaction);
+        when(session.createSelectionQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setReadOnly(true)).thenReturn(query);
+        when(query.setFetchSize(500)).thenReturn(query);
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(rows);
+        bookExportService = new BookExportServiceImpl(sessionFactory, new ObjectMapper(), 500);
+    }
+
+    @Test
+    @DisplayName("Rows of the same book are folded into one line with all its category ids")
+    void exportBooks_RowPerCategory_OneLinePerBook() throws IOException {
+        when(rows.next()).thenReturn(true, true, true, false);
+        when(rows.get()).thenReturn(
+                new Object[] {1L, "Hobbit", "Tolkien", "9780261103344", new BigDecimal("10.50"), null, null, 2L},
+                new Object[] {1L, "Hobbit", "Tolkien", "9780261103344", new BigDecimal("10.50"), null, null, 2L},
+                new Object[] {4L, "Dune", "Herbert", "9780441013593", new BigDecimal("9.99"), "Spice", null, null});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = bookExportService.exportBooks(output);
+
+        assertEquals(2, exported);
+        assertEquals("""
+                {"id":1,"title":"Hobbit","author":"Tolkien","isbn":"9780261103344","price":10.50,\
+                "description":null,"coverImage":null,"categoryIds":[2]}
+                {"id":4,"title":"Dune","author":"Herbert","isbn":"9780441013593","price":9.99,\
+                "description":"Spice","coverImage":null,"categoryIds":[]}
+                """, output.toString(StandardCharsets.UTF_8));
+        verify(rows).close();
+        verify(session).close();
+    }
+
+    @Test
+    void exportBooks_NoBooks_NothingWritten() throws IOException {
+        when(rows.next()).thenReturn(false);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(0, bookExportService.exportBooks(output));
+        assertEquals(0, output.size());
+    }
+}
@@ -0,0 +1,69 @@
+package book_store.service;
+
+import book_store.dto.CreateBookRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookImportReaderTest {
+
+    @Test
+    @DisplayName("CSV columns are matched by header name, quoted fields may contain commas")
+    void csv_QuotedFieldsAndHeaderOrder_RowParsed() throws IOException {
+        BookImportReader reader = BookImportReader.csv(new StringReader(
+                "isbn,Title,author,price,categoryIds\n"
+                        + "9780261103344,\"Hobbit, The \"\"Classic\"\"\",Tolkien,10.50,1;3\n"));
+
+        BookImportReader.Row row = reader.next();
+
+        CreateBookRequestDto book = row.book();
+        assertNull(row.error());
+        assertEquals(2, row.line());
+        assertEquals("Hobbit, The \"Classic\"", book.getTitle());
+        assertEquals("Tolkien", book.getAuthor());
+        assertEquals("9780261103344", book.getIsbn());
+        assertEquals(new BigDecimal("10.50"), book.getPrice());
+        assertEquals(Set.of(1L, 3L), book.getCategoryIds());
+        assertNull(book.getDescription());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Unparseable CSV rows are reported with their line number and reading continues")
+    void csv_InvalidRows_ErrorRowsReturned() throws IOException {
+        BookImportReader reader = BookImportReader.csv(new StringReader(
+                "title,price,categoryIds\nA,abc,\n\nB,1,x\nC,\"2\nD,3,\n"));
+
+        assertEquals(new BookImportReader.Row(2, null, "Invalid price abc"), reader.next());
+        assertEquals(new BookImportReader.Row(4, null, "Invalid category id x"), reader.next());
+        assertEquals(new BookImportReader.Row(5, null, "Unterminated quoted field"), reader.next());
+        assertEquals("D", reader.next().book().getTitle());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csv_EmptyInput_IllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> BookImportReader.csv(new StringReader("")));
+    }
+
+    @Test
+    @DisplayName("Malformed NDJSON lines become error rows, blank lines are skipped")
+    void ndjson_MalformedLine_ErrorRowReturned() throws IOException {
+        BookImportReader reader = BookImportReader.ndjson(new StringReader(
+                "{\"title\":\"A\",\"categoryIds\":[2]}\n\n{broken\n"), new ObjectMapper());
+
+        BookImportReader.Row first = reader.next();
+        BookImportReader.Row second = reader.next();
+
+        assertEquals("A", first.book().getTitle());
+        assertEquals(Set.of(2L), first.book().getCategoryIds());
+        assertEquals(3, second.line());
+        assertTrue(second.error().startsWith("Malformed JSON"));
+        assertNull(reader.next());
+    }
+}
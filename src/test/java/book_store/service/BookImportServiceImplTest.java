@@ -0,0 +1,151 @@
+package book_store.service;
+
+import book_store.dto.CreateBookRequestDto;
+import book_store.dto.book.BookImportEvent;
+import book_store.mapper.BookMapper;
+import book_store.model.Book;
+import book_store.repository.book.BookRepository;
+import book_store.repository.category.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookImportServiceImplTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private Validator validator;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BookWriteListener bookWriteListener;
+    @Mock
+    private ChangeSequence changeSequence;
+
+    private final List<BookImportEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(categoryRepository.findAllIds()).thenReturn(Set.of(1L));
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookMapper.toModel(any(CreateBookRequestDto.class))).thenAnswer(invocation -> {
+            Book book = new Book();
+            book.setIsbn(invocation.<CreateBookRequestDto>getArgument(0).getIsbn());
+            return book;
+        });
+    }
+
+    @Test
+    @DisplayName("A full batch is written as soon as it fills up and the remainder at the end")
+    void importBooks_MoreRowsThanBatchSize_WrittenInBatches() throws IOException {
+        importBooks(2, rows("isbn-1", "isbn-2", "isbn-3", "isbn-4", "isbn-5"));
+
+        verify(transactionTemplate, times(3)).execute(any());
+        ArgumentCaptor<Collection<String>> isbns = ArgumentCaptor.forClass(Collection.class);
+        verify(bookRepository, times(3)).findExistingIsbns(isbns.capture());
+        assertEquals(List.of(2, 2, 1), isbns.getAllValues().stream().map(Collection::size).toList());
+        verify(entityManager, times(5)).persist(any(Book.class));
+        verify(bookWriteListener, times(5)).bookSaved(any(Book.class));
+        assertEquals(List.of(
+                BookImportEvent.progress(2, 2, 0),
+                BookImportEvent.progress(4, 4, 0),
+                BookImportEvent.progress(5, 5, 0),
+                BookImportEvent.done(5, 5, 0)), events);
+    }
+
+    @Test
+    void importBooks_DuplicateIsbns_DuplicatesReported() throws IOException {
+        when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of("isbn-3"));
+
+        importBooks(10, rows("isbn-1", "isbn-1", "isbn-3", "isbn-4"));
+
+        assertEquals(List.of(
+                BookImportEvent.error(2, "Book with isbn isbn-1 already exists"),
+                BookImportEvent.error(3, "Book with isbn isbn-3 already exists"),
+                BookImportEvent.progress(4, 2, 2),
+                BookImportEvent.done(4, 2, 2)), events);
+        verify(entityManager, times(2)).persist(any(Book.class));
+    }
+
+    @Test
+    void importBooks_UnknownCategoryId_RowRejectedBeforeBatch() throws IOException {
+        String input = row("isbn-1", 1L) + row("isbn-2", 2L);
+
+        importBooks(10, input);
+
+        assertEquals(List.of(
+                BookImportEvent.error(2, "Unknown category id 2"),
+                BookImportEvent.progress(2, 1, 1),
+                BookImportEvent.done(2, 1, 1)), events);
+        verify(bookRepository).findExistingIsbns(List.of("isbn-1"));
+    }
+
+    @Test
+    @DisplayName("A rejected batch fails each of its rows and the import carries on")
+    void importBooks_BatchFails_RowsReportedAndListenersSkipped() throws IOException {
+        doThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+
+        importBooks(2, rows("isbn-1", "isbn-2", "isbn-3"));
+
+        assertEquals(List.of(
+                BookImportEvent.error(1, "Batch rejected: Duplicate entry"),
+                BookImportEvent.error(2, "Batch rejected: Duplicate entry"),
+                BookImportEvent.progress(2, 0, 2),
+                BookImportEvent.progress(3, 1, 2),
+                BookImportEvent.done(3, 1, 2)), events);
+        ArgumentCaptor<Book> saved = ArgumentCaptor.forClass(Book.class);
+        verify(bookWriteListener, times(1)).bookSaved(saved.capture());
+        assertEquals("isbn-3", saved.getValue().getIsbn());
+    }
+
+    private void importBooks(int batchSize, String input) throws IOException {
+        BookImportServiceImpl bookImportService = new BookImportServiceImpl(bookRepository, categoryRepository,
+                bookMapper, validator, new ObjectMapper(), entityManager, transactionTemplate,
+                List.of(bookWriteListener), changeSequence, batchSize);
+        bookImportService.importBooks(new StringReader(input), BookImportService.Format.NDJSON, events::add);
+    }
+
+    private static String rows(String... isbns) {
+        return IntStream.range(0, isbns.length)
+                .mapToObj(i -> row(isbns[i], 1L))
+                .collect(Collectors.joining());
+    }
+
+    private static String row(String isbn, Long categoryId) {
+        return "{\"title\":\"Title " + isbn + "\",\"author\":\"Author\",\"isbn\":\"" + isbn
+                + "\",\"price\":9.99,\"categoryIds\":[" + categoryId + "]}\n";
+    }
+}
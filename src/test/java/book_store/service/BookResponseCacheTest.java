@@ -0,0 +1,73 @@
+package book_store.service;
+
+import book_store.dto.BookDto;
+import book_store.model.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookResponseCacheTest {
+    private BookResponseCache bookResponseCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        bookResponseCache = new BookResponseCache(new ObjectMapper(), 1 << 20, new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("The serialized book is reused while its version is unchanged")
+    void get_SameVersion_LoadedOnce() {
+        byte[] first = bookResponseCache.get(1L, "\"3-1\"", loader("Kobzar"));
+        byte[] second = bookResponseCache.get(1L, "\"3-1\"", loader("Kobzar"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("\"title\":\"Kobzar\""));
+    }
+
+    @Test
+    @DisplayName("A newer version is never answered from an entry cached for an older one")
+    void get_NewerVersion_Reloaded() {
+        bookResponseCache.get(1L, "\"3-1\"", loader("Kobzar"));
+
+        byte[] json = bookResponseCache.get(1L, "\"4-1\"", loader("Kobzar 2"));
+
+        assertEquals(2, loads.get());
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"title\":\"Kobzar 2\""));
+    }
+
+    @Test
+    void get_NoVersion_NotCached() {
+        bookResponseCache.get(1L, null, loader("Kobzar"));
+        bookResponseCache.get(1L, null, loader("Kobzar"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bookSaved_CachedBook_Invalidated() {
+        bookResponseCache.get(1L, "\"3-1\"", loader("Kobzar"));
+        Book book = new Book();
+        book.setId(1L);
+
+        bookResponseCache.bookSaved(book);
+        bookResponseCache.get(1L, "\"3-1\"", loader("Kobzar"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<BookDto> loader(String title) {
+        return () -> {
+            loads.incrementAndGet();
+            return new BookDto().setId(1L).setTitle(title);
+        };
+    }
+}
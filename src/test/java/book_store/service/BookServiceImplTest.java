@@ -1,23 +1,45 @@
 package book_store.service;
 
 import book_store.dto.BookDto;
+import book_store.dto.CursorPage;
 import book_store.dto.CreateBookRequestDto;
+import book_store.dto.book.BookBatchDto;
+import book_store.dto.book.BookChangeDto;
+import book_store.dto.book.BookFilterParameters;
 import book_store.dto.book.BookSearchParameters;
+import book_store.dto.category.BookDtoWithoutCategoryIds;
+import book_store.dto.category.CategoryFacetDto;
 import book_store.exception.EntityNotFoundException;
+import book_store.exception.InvalidCursorException;
+import book_store.exception.PreconditionFailedException;
 import book_store.mapper.BookMapper;
 import book_store.model.Book;
-import book_store.model.Category;
+import book_store.repository.EntityChange;
 import book_store.repository.book.BookRepository;
 import book_store.repository.book.BookSpecificationBuilder;
+import book_store.search.BookSearchIndex;
+import book_store.search.BookSuggester;
+import book_store.search.CategoryBitmapIndex;
+import book_store.search.IsbnIndex;
+import book_store.search.SearchHit;
+import book_store.search.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.roaringbitmap.RoaringBitmap;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -32,12 +54,32 @@ class BookServiceImplTest {
     @Mock
     private BookSpecificationBuilder bookSpecificationBuilder;
 
-    @InjectMocks
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookSuggester bookSuggester;
+
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @Mock
+    private BookWriteListener bookWriteListener;
+
+    @Mock
+    private ChangeSequence changeSequence;
+
+    @Mock
+    private IsbnIndex isbnIndex;
+
     private BookServiceImpl bookService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        bookService = new BookServiceImpl(bookRepository, bookMapper, bookSpecificationBuilder,
+                bookSearchIndex, bookSuggester, categoryBitmapIndex, List.of(bookWriteListener), changeSequence,
+                new RequestCoalescer(5000, new SimpleMeterRegistry()), isbnIndex);
     }
 
     @Test
@@ -48,11 +90,14 @@ class BookServiceImplTest {
         when(bookMapper.toModel(requestDto)).thenReturn(book);
         when(bookMapper.toDto(book)).thenReturn(expectedDto);
         when(bookRepository.save(book)).thenReturn(book);
+        when(changeSequence.next()).thenReturn(42L);
 
         BookDto savedBook = bookService.save(requestDto);
 
         assertEquals(expectedDto, savedBook);
+        assertEquals(42L, book.getChangeSeq());
         verify(bookRepository, times(1)).save(book);
+        verify(bookWriteListener, times(1)).bookSaved(book);
     }
 
     @Test
@@ -99,14 +144,76 @@ class BookServiceImplTest {
         assertThrows(EntityNotFoundException.class, () -> bookService.findById(nonExistingId));
     }
 
+    @Test
+    void findIdByIsbn_UnknownIsbn_EntityNotFoundExceptionThrown() {
+        when(isbnIndex.find("9780261103344")).thenReturn(-1L);
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.findIdByIsbn("9780261103344"));
+    }
+
+    @Test
+    @DisplayName("Books come back in the requested order and missing ids are reported")
+    void findAllByIds_SomeIdsMissing_RequestedOrderKept() {
+        when(bookRepository.findDtosByIdIn(List.of(3L, 1L, 7L)))
+                .thenReturn(List.of(new BookDto().setId(1L), new BookDto().setId(3L)));
+
+        BookBatchDto result = bookService.findAllByIds(List.of(3L, 1L, 3L, 7L));
+
+        assertEquals(List.of(3L, 1L), result.books().stream().map(BookDto::getId).toList());
+        assertEquals(List.of(7L), result.missingIds());
+    }
+
+    @Test
+    void findAllByIds_LongIdList_QueriedInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 300).boxed().toList();
+        when(bookRepository.findDtosByIdIn(anyCollection())).thenReturn(List.of());
+
+        BookBatchDto result = bookService.findAllByIds(ids);
+
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(bookRepository, times(3)).findDtosByIdIn(chunks.capture());
+        assertEquals(List.of(128, 128, 44), chunks.getAllValues().stream().map(Collection::size).toList());
+        assertEquals(ids, result.missingIds());
+    }
+
     @Test
     void findAll_ValidPageableProvided_AllBooksRetrievedSuccess() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(bookRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(bookRepository.findAllDtos(pageable)).thenReturn(new PageImpl<>(Collections.emptyList()));
 
         bookService.findAll(pageable);
 
-        verify(bookRepository, times(1)).findAll(any(Pageable.class));
+        verify(bookRepository, times(1)).findAllDtos(pageable);
+        verify(bookRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findAllAfter_MoreBooksAvailable_NextCursorReturned() {
+        when(bookRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of(1L, 2L, 3L));
+        when(bookRepository.findDtosByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(new BookDto().setId(2L), new BookDto().setId(1L)));
+
+        CursorPage<BookDto> firstPage = bookService.findAllAfter("", 2);
+        bookService.findAllAfter(firstPage.next(), 2);
+
+        assertEquals(List.of(1L, 2L), firstPage.items().stream().map(BookDto::getId).toList());
+        verify(bookRepository, times(1)).findIdsAfter(2L, Limit.of(3));
+        verify(bookRepository, never()).count();
+    }
+
+    @Test
+    void findAllAfter_LastPage_NoNextCursor() {
+        when(bookRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of());
+
+        CursorPage<BookDto> page = bookService.findAllAfter("", 2);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
+    }
+
+    @Test
+    void findAllAfter_MalformedCursor_InvalidCursorExceptionThrown() {
+        assertThrows(InvalidCursorException.class, () -> bookService.findAllAfter("not a cursor", 2));
     }
 
     @Test
@@ -120,18 +227,86 @@ class BookServiceImplTest {
         when(bookRepository.save(bookToUpdate)).thenReturn(updatedBook);
         when(bookMapper.toDto(updatedBook)).thenReturn(expectedDto);
 
-        BookDto updatedDto = bookService.updateById(requestDto, bookId);
+        BookDto updatedDto = bookService.updateById(requestDto, bookId, null);
 
         assertEquals(expectedDto, updatedDto);
     }
 
+    @Test
+    void updateById_StaleExpectedChangeSeq_PreconditionFailedExceptionThrown() {
+        when(changeSequence.next()).thenReturn(8L);
+        when(bookRepository.findChangeSeqByIdForUpdate(1L)).thenReturn(Optional.of(6L));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookService.updateById(new CreateBookRequestDto(), 1L, 5L));
+        verify(bookRepository, never()).save(any());
+        verify(changeSequence, never()).next();
+    }
+
+    @Test
+    void updateById_CurrentExpectedChangeSeq_BookUpdated() {
+        CreateBookRequestDto requestDto = new CreateBookRequestDto();
+        Book book = new Book();
+        when(changeSequence.next()).thenReturn(8L);
+        when(bookRepository.findChangeSeqByIdForUpdate(1L)).thenReturn(Optional.of(6L));
+        when(bookMapper.toModel(requestDto)).thenReturn(book);
+        when(bookRepository.save(book)).thenReturn(book);
+
+        bookService.updateById(requestDto, 1L, 6L);
+
+        assertEquals(8L, book.getChangeSeq());
+        verify(bookRepository, times(1)).save(book);
+    }
+
     @Test
     void deleteById_ExistingIdProvided_BookDeletedSuccess() {
         long bookId = 1L;
+        Book book = new Book();
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(changeSequence.next()).thenReturn(7L);
 
         bookService.deleteById(bookId);
 
-        verify(bookRepository, times(1)).deleteById(bookId);
+        assertEquals(7L, book.getChangeSeq());
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).saveAndFlush(book);
+        inOrder.verify(bookRepository).delete(book);
+        verify(bookWriteListener, times(1)).bookDeleted(book);
+    }
+
+    @Test
+    @DisplayName("Change feed returns deleted rows without a book and a cursor after the last row")
+    void findChangesAfter_LiveAndDeletedChanges_DeletedHaveNoBook() {
+        List<EntityChange> changes = List.of(change(5L, 4L, false), change(2L, 6L, true));
+        when(bookRepository.findChangesAfter(3L, 10L, 2)).thenReturn(changes);
+        when(bookRepository.findDtosByIdIn(List.of(5L))).thenReturn(List.of(new BookDto().setId(5L)));
+
+        CursorPage<BookChangeDto> page = bookService.findChangesAfter(CursorCodec.encode(3, 10), 2);
+
+        assertEquals(new BookDto().setId(5L), page.items().get(0).book());
+        assertFalse(page.items().get(0).deleted());
+        assertNull(page.items().get(1).book());
+        assertTrue(page.items().get(1).deleted());
+        assertEquals(CursorCodec.encode(6, 2), page.next());
+    }
+
+    @Test
+    void findChangesAfter_NoNewChanges_SameCursorReturned() {
+        when(bookRepository.findChangesAfter(0L, 0L, 5)).thenReturn(List.of());
+
+        CursorPage<BookChangeDto> page = bookService.findChangesAfter("", 5);
+
+        assertTrue(page.items().isEmpty());
+        assertEquals(CursorCodec.encode(0, 0), page.next());
+        verify(bookRepository, never()).findDtosByIdIn(any());
+    }
+
+    private static EntityChange change(Long id, long changeSeq, boolean deleted) {
+        EntityChange change = mock(EntityChange.class);
+        when(change.getId()).thenReturn(id);
+        when(change.getChangeSeq()).thenReturn(changeSeq);
+        when(change.getDeleted()).thenReturn(deleted);
+        return change;
     }
 
     @Test
@@ -140,24 +315,73 @@ class BookServiceImplTest {
         String[] authors = {"author1", "author2"};
         BookSearchParameters params = new BookSearchParameters(titles, authors);
 
-        when(bookRepository.findAll(ArgumentMatchers.<Specification<Book>>any())).thenReturn(Collections.emptyList());
+        when(bookRepository.findDtos(ArgumentMatchers.<Specification<Book>>any())).thenReturn(Collections.emptyList());
 
         bookService.search(params);
 
-        verify(bookRepository, times(1)).findAll(ArgumentMatchers.<Specification<Book>>any());
+        verify(bookRepository, times(1)).findDtos(ArgumentMatchers.<Specification<Book>>any());
+    }
+
+    @Test
+    void searchFullText_IndexHits_BooksReturnedInRankOrder() {
+        when(bookSearchIndex.search("tolkien", 0, 10)).thenReturn(new SearchResult(
+                List.of(new SearchHit(7L, 2.0), new SearchHit(3L, 1.0)), 2));
+        when(bookRepository.findDtosByIdIn(List.of(7L, 3L)))
+                .thenReturn(List.of(new BookDto().setId(3L), new BookDto().setId(7L)));
+
+        List<BookDto> result = bookService.searchFullText("tolkien", PageRequest.of(0, 10));
+
+        assertEquals(List.of(7L, 3L), result.stream().map(BookDto::getId).toList());
     }
 
     @Test
     void getBooksByCategoryId_ExistingCategoryIdProvided_BooksFoundSuccess() {
+        long categoryId = 1L;
+        BookDtoWithoutCategoryIds book = new BookDtoWithoutCategoryIds();
+        book.setId(4L);
+        when(categoryBitmapIndex.isLoaded()).thenReturn(true);
+        when(categoryBitmapIndex.filter(List.of(categoryId), false)).thenReturn(RoaringBitmap.bitmapOf(4, 9));
+        when(bookRepository.findDtosWithoutCategoriesByIdIn(List.of(4L))).thenReturn(List.of(book));
+
+        List<BookDtoWithoutCategoryIds> result = bookService.getBooksByCategoryId(categoryId, PageRequest.of(0, 1));
+
+        assertEquals(List.of(book), result);
+        verify(bookRepository, never()).findAllByIdIn(any());
+        verify(bookRepository, never()).findIdsByCategoryId(any(), any());
+    }
 
+    @Test
+    void getBooksByCategoryId_IndexNotLoaded_IdsReadFromDatabase() {
         long categoryId = 1L;
-        Category category = new Category();
-        category.setId(categoryId);
+        BookDtoWithoutCategoryIds book = new BookDtoWithoutCategoryIds();
+        book.setId(4L);
+        when(bookRepository.findIdsByCategoryId(categoryId, PageRequest.of(0, 1))).thenReturn(List.of(4L));
+        when(bookRepository.findDtosWithoutCategoriesByIdIn(List.of(4L))).thenReturn(List.of(book));
+
+        List<BookDtoWithoutCategoryIds> result = bookService.getBooksByCategoryId(categoryId, PageRequest.of(0, 1));
+
+        assertEquals(List.of(book), result);
+        verify(categoryBitmapIndex, never()).filter(any(), anyBoolean());
+    }
+
+    @Test
+    void filter_AnyMatchWithQuery_IntersectsSearchMatches() {
+        when(categoryBitmapIndex.filter(List.of(1L, 2L), true)).thenReturn(RoaringBitmap.bitmapOf(3, 5, 8));
+        when(bookSearchIndex.matching("tolkien")).thenReturn(RoaringBitmap.bitmapOf(5, 8, 11));
+
+        bookService.filter(new BookFilterParameters(new Long[] {1L, 2L}, "any", "tolkien"), PageRequest.of(0, 10));
 
-        when(bookRepository.findAllByCategoriesContaining(any(Category.class))).thenReturn(Collections.emptyList());
+        verify(bookRepository, times(1)).findDtosByIdIn(List.of(5L, 8L));
+    }
+
+    @Test
+    void facets_CountsReturnedLargestFirst() {
+        RoaringBitmap books = RoaringBitmap.bitmapOf(1, 2, 3);
+        when(categoryBitmapIndex.filter(List.of(), false)).thenReturn(books);
+        when(categoryBitmapIndex.facets(books)).thenReturn(Map.of(1L, 1, 2L, 3));
 
-        bookService.getBooksByCategoryId(categoryId);
+        List<CategoryFacetDto> facets = bookService.facets(new BookFilterParameters(null, null, null));
 
-        verify(bookRepository, times(1)).findAllByCategoriesContaining(any(Category.class));
+        assertEquals(List.of(new CategoryFacetDto(2L, 3), new CategoryFacetDto(1L, 1)), facets);
     }
 }
@@ -0,0 +1,149 @@
+package book_store.service;
+
+import book_store.dto.shoppingCart.ShoppingCartDto;
+import book_store.model.Book;
+import book_store.model.CartItem;
+import book_store.model.ShoppingCart;
+import book_store.model.User;
+import book_store.repository.cartItem.CartChanges;
+import book_store.repository.cartItem.CartItemRepository;
+import book_store.repository.shoppingCart.ShoppingCartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class CartStoreTest {
+    private static final Long USER_ID = 7L;
+    private static final Long CART_ID = 3L;
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(USER_ID))
+                .thenAnswer(invocation -> Optional.of(shoppingCart()));
+    }
+
+    @Test
+    @DisplayName("Quantity changes stay in memory until the cart is flushed")
+    void setQuantity_CachedCart_WrittenOnFlush() {
+        CartStore cartStore = cartStore(1800000);
+        cartStore.view(USER_ID);
+
+        ShoppingCartDto shoppingCart = cartStore.setQuantity(11L, 5);
+        cartStore.add(USER_ID, 1L, 2);
+        assertTrue(cartStore.remove(12L));
+
+        assertEquals(5, shoppingCart.getCartItems().stream()
+                .filter(cartItem -> cartItem.getId().equals(11L))
+                .findFirst().orElseThrow().getQuantity());
+        verify(cartItemRepository, never()).applyChanges(anyMap());
+        cartStore.flush(USER_ID);
+        verify(cartItemRepository).applyChanges(Map.of(CART_ID, new CartChanges(Map.of(), Map.of(1L, 7), Set.of(2L))));
+        cartStore.flush();
+        verifyNoMoreInteractions(cartItemRepository);
+    }
+
+    @Test
+    void flush_WriteFailed_ChangesKeptForNextFlush() {
+        CartStore cartStore = cartStore(1800000);
+        cartStore.add(USER_ID, 1L, 2);
+        doThrow(new IllegalStateException("down")).doNothing().when(cartItemRepository).applyChanges(anyMap());
+
+        assertThrows(IllegalStateException.class, cartStore::flush);
+        cartStore.flush();
+
+        verify(cartItemRepository, times(2))
+                .applyChanges(Map.of(CART_ID, new CartChanges(Map.of(), Map.of(1L, 3), Set.of())));
+    }
+
+    @Test
+    void writeThrough_PendingChanges_WrittenFirstAndCartReloaded() {
+        CartStore cartStore = cartStore(1800000);
+        cartStore.add(USER_ID, 1L, 2);
+
+        String result = cartStore.writeThrough(USER_ID, () -> {
+            verify(cartItemRepository).applyChanges(anyMap());
+            assertEquals(0, cartStore.size());
+            return "written";
+        });
+        cartStore.view(USER_ID);
+
+        assertEquals("written", result);
+        verify(shoppingCartRepository, times(2)).findFirstWithItemsByUserIdOrderById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("A failing final flush does not fail the shutdown")
+    void close_FlushFailed_NotThrown() {
+        CartStore cartStore = cartStore(1800000);
+        cartStore.add(USER_ID, 1L, 2);
+        doThrow(new IllegalStateException("down")).when(cartItemRepository).applyChanges(anyMap());
+
+        assertDoesNotThrow(cartStore::close);
+        verify(cartItemRepository).applyChanges(Map.of(CART_ID, new CartChanges(Map.of(), Map.of(1L, 3), Set.of())));
+    }
+
+    @Test
+    void add_BookNotInCart_NullReturned() {
+        CartStore cartStore = cartStore(1800000);
+
+        assertNull(cartStore.add(USER_ID, 9L, 1));
+        assertNull(cartStore.add(8L, 1L, 1));
+    }
+
+    @Test
+    void flush_IdleCart_Evicted() {
+        CartStore cartStore = cartStore(0);
+        cartStore.add(USER_ID, 1L, 2);
+
+        cartStore.flush();
+
+        assertEquals(0, cartStore.size());
+        verify(cartItemRepository).applyChanges(anyMap());
+    }
+
+    private CartStore cartStore(long idleTimeout) {
+        return new CartStore(shoppingCartRepository, cartItemRepository, transactionManager,
+                4, idleTimeout, new SimpleMeterRegistry());
+    }
+
+    private static ShoppingCart shoppingCart() {
+        User user = new User();
+        user.setId(USER_ID);
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setId(CART_ID);
+        shoppingCart.setUser(user);
+        shoppingCart.getCartItems().add(cartItem(11L, 1L, 1));
+        shoppingCart.getCartItems().add(cartItem(12L, 2L, 4));
+        return shoppingCart;
+    }
+
+    private static CartItem cartItem(Long id, Long bookId, int quantity) {
+        Book book = new Book();
+        book.setId(bookId);
+        book.setTitle("Book " + bookId);
+        book.setPrice(new BigDecimal("9.99"));
+        CartItem cartItem = new CartItem();
+        cartItem.setId(id);
+        cartItem.setBook(book);
+        cartItem.setQuantity(quantity);
+        return cartItem;
+    }
+}
@@ -2,9 +2,14 @@ package book_store.service;
 
 import book_store.dto.category.CategoryDto;
 import book_store.exception.EntityNotFoundException;
+import book_store.exception.PreconditionFailedException;
 import book_store.mapper.CategoryMapper;
 import book_store.model.Category;
 import book_store.repository.category.CategoryRepository;
+import book_store.search.CatalogVersions;
+import book_store.search.CategoryBitmapIndex;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -26,6 +31,21 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ChangeSequence changeSequence;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -97,7 +117,7 @@ class CategoryServiceImplTest {
         when(categoryRepository.save(categoryToUpdate)).thenReturn(categoryToUpdate);
         when(categoryMapper.toDto(categoryToUpdate)).thenReturn(categoryDto);
 
-        CategoryDto result = categoryService.update(categoryId, categoryDto);
+        CategoryDto result = categoryService.update(categoryId, categoryDto, null);
 
         assertEquals(categoryDto, result);
         verify(categoryMapper, times(1)).toEntity(categoryDto);
@@ -105,10 +125,30 @@ class CategoryServiceImplTest {
         verify(categoryMapper, times(1)).toDto(categoryToUpdate);
     }
 
+    @Test
+    void update_CategoryDeleted_PreconditionFailedExceptionThrown() {
+        when(categoryRepository.findChangeSeqByIdForUpdate(1L)).thenReturn(Optional.empty());
+
+        assertThrows(PreconditionFailedException.class,
+                () -> categoryService.update(1L, new CategoryDto(), 3L));
+        verify(categoryRepository, never()).save(any());
+        verify(changeSequence, never()).next();
+    }
+
     @Test
     void deleteById_ExistingCategoryId_DeletesCategory() {
         long categoryId = 1L;
+        Category category = new Category();
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(changeSequence.next()).thenReturn(9L);
+        when(sessionFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
         categoryService.deleteById(categoryId);
-        verify(categoryRepository, times(1)).deleteById(categoryId);
+        assertEquals(9L, category.getChangeSeq());
+        verify(categoryRepository, times(1)).saveAndFlush(category);
+        verify(categoryRepository, times(1)).delete(category);
+        verify(cache, times(1)).evictCollectionData("book_store.model.Book.categories");
+        verify(categoryBitmapIndex, times(1)).categoryDeleted(categoryId);
+        verify(catalogVersions, times(1)).categoryDeleted(category);
     }
 }
@@ -0,0 +1,51 @@
+package book_store.service;
+
+import book_store.exception.InvalidCursorException;
+import book_store.repository.EntityChange;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CursorCodecTest {
+
+    @Test
+    void decode_EncodedKeys_SameKeysReturned() {
+        LocalDateTime orderDate = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456000);
+
+        String[] keys = CursorCodec.decode(CursorCodec.encode(orderDate, 42L), 2);
+
+        assertEquals(orderDate, CursorCodec.parseDateTime(keys[0]));
+        assertEquals(42L, CursorCodec.parseLong(keys[1]));
+    }
+
+    @Test
+    void decode_EncodedCursor_UrlSafeWithoutPadding() {
+        String cursor = CursorCodec.encode(LocalDateTime.of(2024, 3, 1, 12, 0), Long.MAX_VALUE);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        assertArrayEquals(new String[] {"2024-03-01T12:00", String.valueOf(Long.MAX_VALUE)},
+                CursorCodec.decode(cursor, 2));
+    }
+
+    @Test
+    void decodeChangePosition_EncodedPosition_SamePositionReturned() {
+        EntityChange change = mock(EntityChange.class);
+        when(change.getId()).thenReturn(7L);
+        when(change.getChangeSeq()).thenReturn(19L);
+
+        String cursor = CursorCodec.encodeChangePosition(List.of(change), new long[] {0, 0});
+
+        assertArrayEquals(new long[] {19, 7}, CursorCodec.decodeChangePosition(cursor));
+        assertArrayEquals(new long[] {0, 0}, CursorCodec.decodeChangePosition(""));
+        assertArrayEquals(new long[] {19, 7},
+                CursorCodec.decodeChangePosition(CursorCodec.encodeChangePosition(List.of(), new long[] {19, 7})));
+    }
+
+    @Test
+    void decode_WrongKeyCount_InvalidCursorExceptionThrown() {
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(CursorCodec.encode(1L), 2));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("%%%", 2));
+    }
+}
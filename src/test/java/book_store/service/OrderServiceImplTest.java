@@ -0,0 +1,150 @@
+package book_store.service;
+
+import book_store.dto.CursorPage;
+import book_store.dto.order.OrderDto;
+import book_store.exception.InvalidCursorException;
+import book_store.mapper.OrderItemMapper;
+import book_store.mapper.OrderMapper;
+import book_store.model.Order;
+import book_store.model.User;
+import book_store.repository.book.BookRepository;
+import book_store.repository.order.OrderKey;
+import book_store.repository.order.OrderRepository;
+import book_store.repository.shoppingCart.ShoppingCartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderServiceImplTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private OrderItemMapper orderItemMapper;
+    @Mock
+    private ObjectProvider<CartStore> cartStore;
+
+    private OrderServiceImpl orderService;
+    private final User user = new User();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        orderService = new OrderServiceImpl(orderRepository, bookRepository, shoppingCartRepository,
+                orderMapper, orderItemMapper, cartStore);
+        user.setId(1L);
+        when(orderMapper.toDtoList(anyList())).thenAnswer(invocation -> invocation.<List<Order>>getArgument(0)
+                .stream()
+                .map(order -> {
+                    OrderDto orderDto = new OrderDto();
+                    orderDto.setId(order.getId());
+                    return orderDto;
+                })
+                .toList());
+    }
+
+    @Test
+    @DisplayName("The first page hands out a cursor that the following page resumes after")
+    void findAllAfter_MoreOrdersAvailable_NextCursorReturned() {
+        when(orderRepository.findLatestKeysByUser(user, Limit.of(3))).thenReturn(keys(3L, 2L, 1L));
+        when(orderRepository.findAllByIdIn(List.of(3L, 2L))).thenReturn(List.of(order(2L), order(3L)));
+        when(orderRepository.findKeysByUserAfter(user, orderDate(2L), 2L, Limit.of(3))).thenReturn(keys(1L));
+        when(orderRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(order(1L)));
+
+        CursorPage<OrderDto> firstPage = orderService.findAllAfter(user, "", 2);
+        CursorPage<OrderDto> nextPage = orderService.findAllAfter(user, firstPage.next(), 2);
+
+        assertEquals(List.of(3L, 2L), firstPage.items().stream().map(OrderDto::getId).toList());
+        assertEquals(CursorCodec.encode(orderDate(2L), 2L), firstPage.next());
+        assertEquals(List.of(1L), nextPage.items().stream().map(OrderDto::getId).toList());
+        assertNull(nextPage.next());
+    }
+
+    @Test
+    @DisplayName("An order gone between the id and the entity phase does not move the cursor back")
+    void findAllAfter_LastOrderVanished_NextCursorFromIdPhase() {
+        when(orderRepository.findLatestKeysByUser(user, Limit.of(3))).thenReturn(keys(3L, 2L, 1L));
+        when(orderRepository.findAllByIdIn(List.of(3L, 2L))).thenReturn(List.of(order(3L)));
+
+        CursorPage<OrderDto> page = orderService.findAllAfter(user, "", 2);
+
+        assertEquals(List.of(3L), page.items().stream().map(OrderDto::getId).toList());
+        assertEquals(CursorCodec.encode(orderDate(2L), 2L), page.next());
+    }
+
+    @Test
+    void findAllAfter_LastPageExactlyFull_NoNextCursor() {
+        String after = CursorCodec.encode(orderDate(3L), 3L);
+        when(orderRepository.findKeysByUserAfter(user, orderDate(3L), 3L, Limit.of(3))).thenReturn(keys(2L, 1L));
+        when(orderRepository.findAllByIdIn(List.of(2L, 1L))).thenReturn(List.of(order(1L), order(2L)));
+
+        CursorPage<OrderDto> page = orderService.findAllAfter(user, after, 2);
+
+        assertEquals(List.of(2L, 1L), page.items().stream().map(OrderDto::getId).toList());
+        assertNull(page.next());
+    }
+
+    @Test
+    void findAllAfter_NoOrders_EmptyPageWithoutCursor() {
+        when(orderRepository.findLatestKeysByUser(user, Limit.of(3))).thenReturn(keys());
+
+        CursorPage<OrderDto> page = orderService.findAllAfter(user, "", 2);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
+        verify(orderRepository, never()).findAllByIdIn(anyCollection());
+    }
+
+    @Test
+    void findAllAfter_MalformedCursor_InvalidCursorExceptionThrown() {
+        assertThrows(InvalidCursorException.class, () -> orderService.findAllAfter(user, "not a cursor", 2));
+        assertThrows(InvalidCursorException.class,
+                () -> orderService.findAllAfter(user, CursorCodec.encode("yesterday", 2L), 2));
+        assertThrows(InvalidCursorException.class,
+                () -> orderService.findAllAfter(user, CursorCodec.encode(NOON, "two"), 2));
+        verifyNoInteractions(orderRepository);
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderDate(orderDate(id));
+        return order;
+    }
+
+    private static List<OrderKey> keys(Long... ids) {
+        return Arrays.stream(ids)
+                .<OrderKey>map(id -> new OrderKey() {
+                    @Override
+                    public Long getId() {
+                        return id;
+                    }
+
+                    @Override
+                    public LocalDateTime getOrderDate() {
+                        return orderDate(id);
+                    }
+                })
+                .toList();
+    }
+
+    private static LocalDateTime orderDate(Long id) {
+        return NOON.plusHours(id);
+    }
+}
@@ -0,0 +1,131 @@
+package book_store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+    private static final String OPERATION = "book.findById";
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @Test
+    @DisplayName("Concurrent callers for the same key share a single load")
+    void load_ConcurrentSameKey_LoadedOnce() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5000, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> coalescer.load(OPERATION, 1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "book";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Thread> followers = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            Thread follower = new Thread(() -> result.complete(coalescer.load(OPERATION, 1L, () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+            follower.start();
+            followers.add(follower);
+            results.add(result);
+        }
+        awaitWaiting(followers);
+
+        release.countDown();
+
+        assertEquals("book", leader.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<String> result : results) {
+            assertEquals("book", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(4, count("coalesced"));
+        assertEquals(1, count("loaded"));
+    }
+
+    @Test
+    void load_LoadFailed_NextCallLoadsAgain() {
+        RequestCoalescer coalescer = new RequestCoalescer(5000, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.load(OPERATION, 1L, () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals("book", coalescer.load(OPERATION, 1L, () -> "book"));
+    }
+
+    @Test
+    @DisplayName("Callers stop waiting for a slow load after the timeout and load on their own")
+    void load_SlowLoad_FollowerLoadsAfterTimeout() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(50, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> coalescer.load(OPERATION, 1L, () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        String result = coalescer.load(OPERATION, 1L, () -> "fresh");
+
+        release.countDown();
+        assertEquals("fresh", result);
+        assertEquals(1, count("timed-out"));
+    }
+
+    @Test
+    void load_DifferentOperations_NotShared() {
+        RequestCoalescer coalescer = new RequestCoalescer(5000, meterRegistry);
+
+        assertEquals("book", coalescer.load(OPERATION, 1L, () -> "book"));
+        assertEquals("page", coalescer.load("book.getBooksByCategoryId", 1L, () -> "page"));
+        assertEquals(2, count("loaded"));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("catalog.coalescer.calls").tag("outcome", outcome).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package book_store.service;
+
+import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationRequest;
+import book_store.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ShoppingCartConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 25;
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll(@Autowired DataSource dataSource) throws SQLException {
+        teardown(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection,
+                    new ClassPathResource("database/books/add-three-default-books.sql"));
+            connection.createStatement().executeUpdate("insert into shoppingcarts (id, user_id) values (1, 1)");
+        }
+    }
+
+    @AfterAll
+    static void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    @Test
+    @DisplayName("Concurrent adds to one cart end up as one line per book with every copy counted")
+    void addBookToCart_ManyThreadsOneCart_QuantitiesSummed() throws Exception {
+        User user = new User();
+        user.setId(1L);
+
+        addConcurrently(ADDS_PER_THREAD, bookId -> addBookToCart(bookId, user));
+
+        assertCart(user, ADDS_PER_THREAD);
+    }
+
+    @Test
+    @DisplayName("Concurrent first adds of a user without a cart create exactly one cart")
+    void addBookToCart_ManyThreadsNoCart_OneCartCreated() throws Exception {
+        User user = new User();
+        user.setId(2L);
+
+        addConcurrently(1, bookId -> addBookToCart(bookId, user));
+
+        assertCart(user, 1);
+    }
+
+    @Test
+    @DisplayName("Concurrent first batches of a user without a cart create exactly one cart")
+    void applyOperations_ManyThreadsNoCart_OneCartCreated() throws Exception {
+        User user = new User();
+        user.setId(3L);
+
+        addConcurrently(1, bookId -> {
+            CartOperationRequest operation = new CartOperationRequest();
+            operation.setType(CartOperationRequest.Type.ADD);
+            operation.setBookId(bookId);
+            operation.setQuantity(1);
+            shoppingCartService.applyOperations(List.of(operation), user);
+        });
+
+        assertCart(user, 1);
+    }
+
+    private void addConcurrently(int addsPerThread, LongConsumer add) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> threads = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            long bookId = thread % 3 + 1;
+            threads.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    add.accept(bookId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : threads) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private void addBookToCart(long bookId, User user) {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setBookId(bookId);
+        request.setQuantity(1);
+        shoppingCartService.addBookToCart(request, user);
+    }
+
+    private void assertCart(User user, int addsPerThread) {
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from shoppingcarts where user_id = ?", Integer.class, user.getId()));
+        List<Map<String, Object>> lines = jdbcTemplate.queryForList("select c.book_id, c.quantity"
+                + " from cartitems c join shoppingcarts s on s.id = c.shopping_cart_id"
+                + " where s.user_id = ? order by c.book_id", user.getId());
+        assertEquals(3, lines.size());
+        assertEquals(6 * addsPerThread, ((Number) lines.get(0).get("quantity")).intValue());
+        assertEquals(5 * addsPerThread, ((Number) lines.get(1).get("quantity")).intValue());
+        assertEquals(5 * addsPerThread, ((Number) lines.get(2).get("quantity")).intValue());
+    }
+
+    private static void teardown(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().executeUpdate("DELETE FROM cartitems");
+            connection.createStatement().executeUpdate("DELETE FROM shoppingcarts");
+            connection.createStatement().executeUpdate("DELETE FROM books");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
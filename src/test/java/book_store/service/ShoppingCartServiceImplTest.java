@@ -1,16 +1,20 @@
 package book_store.service;
 
+import book_store.dto.cartItemDto.CartItemDto;
 import book_store.dto.cartItemDto.UpdateCartItemRequest;
 import book_store.dto.shoppingCart.AddToCartRequest;
+import book_store.dto.shoppingCart.CartOperationRequest;
 import book_store.dto.shoppingCart.ShoppingCartDto;
 import book_store.exception.EntityNotFoundException;
-import book_store.mapper.BookMapper;
 import book_store.mapper.ShoppingCartMapper;
-import book_store.model.Book;
 import book_store.model.CartItem;
+import book_store.model.Money;
 import book_store.model.ShoppingCart;
 import book_store.model.User;
+import book_store.repository.book.BookRepository;
+import book_store.repository.cartItem.CartChanges;
 import book_store.repository.cartItem.CartItemRepository;
+import book_store.repository.shoppingCart.CartLineView;
 import book_store.repository.shoppingCart.ShoppingCartRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,10 +22,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -39,7 +46,7 @@ class ShoppingCartServiceImplTest {
     private ShoppingCartServiceImpl shoppingCartService;
 
     @Mock
-    private BookMapper bookMapper;
+    private BookRepository bookRepository;
 
     @BeforeEach
     public void setup() {
@@ -47,21 +54,38 @@ class ShoppingCartServiceImplTest {
     }
 
     @Test
-    @DisplayName("Test findUserShoppingCart: Success - User Exists, ShoppingCart Returned")
+    @DisplayName("Test findUserShoppingCart: Success - User Exists, ShoppingCart With Totals Returned")
     void findUserShoppingCart_Success_ShoppingCartReturned() {
         User user = new User();
         user.setId(1L);
-        ShoppingCart shoppingCart = new ShoppingCart();
-        shoppingCart.setId(1L);
-        shoppingCart.setUser(user);
-        Pageable pageable = Pageable.unpaged();
-        Page<ShoppingCart> page = mock(Page.class);
-        when(page.getContent()).thenReturn(List.of(shoppingCart));
-        when(shoppingCartRepository.findByUserId(user.getId(), pageable)).thenReturn(page);
-        ShoppingCartDto expectedDto = new ShoppingCartDto();
-        when(shoppingCartMapper.toDto(shoppingCart)).thenReturn(expectedDto);
-        ShoppingCartDto resultDto = shoppingCartService.findUserShoppingCart(user, pageable);
-        assertEquals(expectedDto, resultDto);
+        List<CartLineView> lines = List.of(
+                cartLine(1L, 1L, 101L, new BigDecimal("10.00"), 2),
+                cartLine(1L, 2L, 102L, new BigDecimal("5.50"), 3));
+        when(shoppingCartRepository.findCartLinesByUserId(user.getId())).thenReturn(lines);
+
+        ShoppingCartDto resultDto = shoppingCartService.findUserShoppingCart(user);
+
+        assertEquals(1L, resultDto.getId());
+        assertEquals(1L, resultDto.getUserId());
+        assertEquals(Set.of(new Money(2000), new Money(1650)), resultDto.getCartItems().stream()
+                .map(CartItemDto::getLineTotal)
+                .collect(Collectors.toSet()));
+        assertEquals(new Money(3650), resultDto.getTotal());
+    }
+
+    @Test
+    @DisplayName("Test findUserShoppingCart: User Without Cart - Empty Cart Returned")
+    void findUserShoppingCart_NoCart_EmptyCartReturned() {
+        User user = new User();
+        user.setId(1L);
+        when(shoppingCartRepository.findCartLinesByUserId(user.getId())).thenReturn(List.of());
+
+        ShoppingCartDto resultDto = shoppingCartService.findUserShoppingCart(user);
+
+        assertNull(resultDto.getId());
+        assertEquals(1L, resultDto.getUserId());
+        assertTrue(resultDto.getCartItems().isEmpty());
+        assertEquals(Money.ZERO, resultDto.getTotal());
     }
 
     @Test
@@ -72,24 +96,17 @@ class ShoppingCartServiceImplTest {
         request.setQuantity(1);
         User user = new User();
         user.setId(1L);
-        Book book = new Book();
-        book.setId(1L);
         ShoppingCart shoppingCart = new ShoppingCart();
         shoppingCart.setId(1L);
         shoppingCart.setUser(user);
-        CartItem existingCartItem = new CartItem();
-        existingCartItem.setId(1L);
-        existingCartItem.setBook(book);
-        existingCartItem.setQuantity(1);
         ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
         shoppingCartDto.setId(1L);
-        when(bookMapper.bookFromId(1L)).thenReturn(book);
-        when(shoppingCartRepository.findByUser(user)).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findByShoppingCartAndBook(shoppingCart, book)).thenReturn(existingCartItem);
+        when(cartItemRepository.addToUserCart(1L, 1L, 1)).thenReturn(2);
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(1L)).thenReturn(Optional.of(shoppingCart));
         when(shoppingCartMapper.toDto(shoppingCart)).thenReturn(shoppingCartDto);
         ShoppingCartDto result = shoppingCartService.addBookToCart(request, user);
         assertEquals(shoppingCartDto, result);
-        assertEquals(2, existingCartItem.getQuantity());
+        verify(cartItemRepository, times(1)).addToUserCart(1L, 1L, 1);
     }
 
     @Test
@@ -149,25 +166,19 @@ class ShoppingCartServiceImplTest {
         request.setQuantity(1);
         User user = new User();
         user.setId(1L);
-        Book book = new Book();
-        book.setId(1L);
         ShoppingCart shoppingCart = new ShoppingCart();
         shoppingCart.setId(1L);
         shoppingCart.setUser(user);
         ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
         shoppingCartDto.setId(1L);
-        when(bookMapper.bookFromId(1L)).thenReturn(book);
-        when(shoppingCartRepository.findByUser(user)).thenReturn(Optional.empty());
-        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenAnswer(invocation -> {
-            ShoppingCart savedCart = invocation.getArgument(0);
-            savedCart.setId(1L);
-            return savedCart;
-        });
+        when(cartItemRepository.addToUserCart(1L, 1L, 1)).thenReturn(0, 1);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(1L)).thenReturn(Optional.of(shoppingCart));
         when(shoppingCartMapper.toDto(any(ShoppingCart.class))).thenReturn(shoppingCartDto);
         ShoppingCartDto result = shoppingCartService.addBookToCart(request, user);
         assertEquals(shoppingCartDto, result);
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
-        verify(shoppingCartRepository, times(1)).save(any(ShoppingCart.class));
+        verify(cartItemRepository, times(2)).addToUserCart(1L, 1L, 1);
+        verify(shoppingCartRepository, times(1)).createForUser(1L);
     }
 
     @Test
@@ -175,26 +186,100 @@ class ShoppingCartServiceImplTest {
     void addBookToCart_ExistingShoppingCart() {
         AddToCartRequest request = new AddToCartRequest();
         request.setBookId(1L);
-        request.setQuantity(1);
+        request.setQuantity(3);
         User user = new User();
         user.setId(1L);
-        Book book = new Book();
-        book.setId(1L);
         ShoppingCart shoppingCart = new ShoppingCart();
         shoppingCart.setId(1L);
         shoppingCart.setUser(user);
-        CartItem existingCartItem = new CartItem();
-        existingCartItem.setId(1L);
-        existingCartItem.setBook(book);
-        existingCartItem.setQuantity(1);
-        ShoppingCartDto shoppingCartDto = new ShoppingCartDto();
-        shoppingCartDto.setId(1L);
-        when(bookMapper.bookFromId(1L)).thenReturn(book);
-        when(shoppingCartRepository.findByUser(user)).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findByShoppingCartAndBook(shoppingCart, book)).thenReturn(existingCartItem);
-        when(shoppingCartMapper.toDto(shoppingCart)).thenReturn(shoppingCartDto);
-        ShoppingCartDto result = shoppingCartService.addBookToCart(request, user);
-        assertEquals(shoppingCartDto, result);
-        assertEquals(2, existingCartItem.getQuantity());
+        when(cartItemRepository.addToUserCart(1L, 1L, 3)).thenReturn(1);
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(1L)).thenReturn(Optional.of(shoppingCart));
+        shoppingCartService.addBookToCart(request, user);
+        verify(shoppingCartRepository, never()).createForUser(any());
+        verify(bookRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Test addBookToCart: Book Not Found")
+    void addBookToCart_BookNotFound() {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setBookId(99L);
+        request.setQuantity(1);
+        User user = new User();
+        user.setId(1L);
+        when(cartItemRepository.addToUserCart(1L, 99L, 1)).thenReturn(0);
+        when(bookRepository.existsById(99L)).thenReturn(false);
+        assertThrows(EntityNotFoundException.class, () -> shoppingCartService.addBookToCart(request, user));
+        verify(shoppingCartRepository, never()).createForUser(any());
+    }
+
+    @Test
+    @DisplayName("Test applyOperations: operations on the same book are folded into one change")
+    void applyOperations_SameBookTwice_NetChangesApplied() {
+        User user = new User();
+        user.setId(1L);
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setId(5L);
+        when(bookRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(shoppingCartRepository.findCartIdsByUserId(eq(1L), any(Limit.class))).thenReturn(List.of(5L));
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(1L)).thenReturn(Optional.of(shoppingCart));
+        shoppingCartService.applyOperations(List.of(
+                operation(CartOperationRequest.Type.ADD, 1L, 2),
+                operation(CartOperationRequest.Type.ADD, 1L, 3),
+                operation(CartOperationRequest.Type.REMOVE, 2L, null),
+                operation(CartOperationRequest.Type.ADD, 2L, 4),
+                operation(CartOperationRequest.Type.SET_QUANTITY, 3L, 7),
+                operation(CartOperationRequest.Type.ADD, 3L, 1),
+                operation(CartOperationRequest.Type.ADD, 4L, 1),
+                operation(CartOperationRequest.Type.REMOVE, 4L, null)), user);
+        verify(cartItemRepository).applyChanges(5L, new CartChanges(
+                Map.of(1L, 5), Map.of(2L, 4, 3L, 8), Set.of(4L)));
+        verify(shoppingCartRepository, never()).createForUser(any());
+    }
+
+    @Test
+    @DisplayName("Test applyOperations: New ShoppingCart")
+    void applyOperations_NoCart_CartCreatedOnce() {
+        User user = new User();
+        user.setId(1L);
+        ShoppingCart shoppingCart = new ShoppingCart();
+        shoppingCart.setId(5L);
+        when(bookRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(shoppingCartRepository.findCartIdsByUserId(eq(1L), any(Limit.class))).thenReturn(List.of(), List.of(5L));
+        when(shoppingCartRepository.findFirstWithItemsByUserIdOrderById(1L)).thenReturn(Optional.of(shoppingCart));
+        shoppingCartService.applyOperations(List.of(operation(CartOperationRequest.Type.ADD, 1L, 2)), user);
+        verify(shoppingCartRepository, times(1)).createForUser(1L);
+        verify(cartItemRepository).applyChanges(5L, new CartChanges(Map.of(1L, 2), Map.of(), Set.of()));
+    }
+
+    @Test
+    @DisplayName("Test applyOperations: Book Not Found")
+    void applyOperations_UnknownBook_EntityNotFoundExceptionThrown() {
+        User user = new User();
+        user.setId(1L);
+        when(bookRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        assertThrows(EntityNotFoundException.class, () -> shoppingCartService.applyOperations(List.of(
+                operation(CartOperationRequest.Type.ADD, 1L, 1),
+                operation(CartOperationRequest.Type.ADD, 9L, 1)), user));
+        verify(cartItemRepository, never()).applyChanges(any(), any());
+    }
+
+    private static CartOperationRequest operation(CartOperationRequest.Type type, Long bookId, Integer quantity) {
+        CartOperationRequest operation = new CartOperationRequest();
+        operation.setType(type);
+        operation.setBookId(bookId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static CartLineView cartLine(Long cartId, Long cartItemId, Long bookId, BigDecimal price, int quantity) {
+        CartLineView line = mock(CartLineView.class);
+        when(line.getCartId()).thenReturn(cartId);
+        when(line.getCartItemId()).thenReturn(cartItemId);
+        when(line.getBookId()).thenReturn(bookId);
+        when(line.getBookTitle()).thenReturn("Book " + bookId);
+        when(line.getPrice()).thenReturn(price);
+        when(line.getQuantity()).thenReturn(quantity);
+        return line;
     }
 }
@@ -0,0 +1,31 @@
+package book_store.validation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnValidatorTest {
+    private final IsbnValidator validator = new IsbnValidator();
+
+    @Test
+    void isValid_CorrectChecksum_True() {
+        assertTrue(validator.isValid("9780261103344", null));
+        assertTrue(validator.isValid("9780441013593", null));
+        assertTrue(validator.isValid("9791032305690", null));
+    }
+
+    @Test
+    void isValid_WrongChecksumOrFormat_False() {
+        assertFalse(validator.isValid("9780261103345", null));
+        assertFalse(validator.isValid("978026110334", null));
+        assertFalse(validator.isValid("97802611033440", null));
+        assertFalse(validator.isValid("978-0261103344", null));
+        assertFalse(validator.isValid("978026110334X", null));
+        assertFalse(validator.isValid(null, null));
+    }
+
+    @Test
+    void toLong_ThirteenDigits_Packed() {
+        assertEquals(9780261103344L, IsbnValidator.toLong("9780261103344"));
+        assertEquals(IsbnValidator.INVALID, IsbnValidator.toLong("97802611033a4"));
+    }
+}
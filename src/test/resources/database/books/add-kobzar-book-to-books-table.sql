@@ -1 +1,2 @@
-insert into books (id, price, title, author, isbn) values (4, 11.99, 'Kobzar1', 'Shevchenko1','9430303332081');
\ No newline at end of file
+insert into books (id, price, title, author, isbn) values (4, 11.99, 'Kobzar1', 'Shevchenko1','9430303332081');
+update id_generators set next_val = greatest(next_val, (select max(id) + 100 from books)) where name = 'books';
\ No newline at end of file
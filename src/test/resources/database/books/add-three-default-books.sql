@@ -1,3 +1,4 @@
 insert into books (id, price, title, author, isbn) values (1, 10.99, 'Kobzar', 'Shevchenko','9460303332081');
 insert into books (id, price, title, author, isbn) values (2, 20.99, 'Avatar', 'Unknow', '9460306342021');
-insert into books (id, price, title, author, isbn) values (3, 30.99, 'Terminator', 'Arnold', '9460301332081');
\ No newline at end of file
+insert into books (id, price, title, author, isbn) values (3, 30.99, 'Terminator', 'Arnold', '9460301332081');
+update id_generators set next_val = greatest(next_val, (select max(id) + 100 from books)) where name = 'books';
\ No newline at end of file